@@ -0,0 +1,22 @@
+package net.tx0.jason.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks selected by the usual JMH command line, always profiling allocation rates.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar ReaderBenchmark -p corpus=FLAT,NUMBERS
+ * </pre>
+ */
+public class Benchmarks {
+
+    public static void main( String[] args ) throws Exception {
+        CommandLineOptions options = new CommandLineOptions( args );
+        new Runner( new OptionsBuilder().parent( options ).addProfiler( GCProfiler.class ).build() ).run();
+    }
+
+}
@@ -0,0 +1,29 @@
+package net.tx0.jason.benchmarks;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.OutputStream;
+
+/**
+ * Discards everything written, handing it to a {@link Blackhole} so writing cannot be optimized away.
+ */
+final class BlackholeOutputStream extends OutputStream {
+
+    private final Blackhole blackhole;
+
+    BlackholeOutputStream( Blackhole blackhole ) {
+        this.blackhole = blackhole;
+    }
+
+    @Override
+    public void write( int b ) {
+        blackhole.consume( b );
+    }
+
+    @Override
+    public void write( byte[] b, int off, int len ) {
+        blackhole.consume( b );
+        blackhole.consume( len );
+    }
+
+}
@@ -0,0 +1,24 @@
+package net.tx0.jason.benchmarks;
+
+import net.tx0.jason.Json;
+import net.tx0.jason.JsonConfig;
+import net.tx0.jason.JsonConfigBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+
+/**
+ * Streaming documents from a reader to a writer with {@link Json#copy(net.tx0.jason.JsonReader, net.tx0.jason.JsonWriter)}.
+ */
+public class CopyBenchmark extends BenchmarkBase {
+
+    private static final JsonConfig COMPACT = new JsonConfigBuilder().setNoLayout().build();
+
+    @Benchmark
+    public void utf8Bytes( Documents documents, Blackhole blackhole ) {
+        Json.copy( Json.createReader( new ByteArrayInputStream( documents.bytes ) ),
+                Json.createWriter( COMPACT, new BlackholeOutputStream( blackhole ) ) );
+    }
+
+}
@@ -0,0 +1,108 @@
+package net.tx0.jason.benchmarks;
+
+import java.util.Random;
+
+/**
+ * Synthetic documents of roughly a given size, generated from a fixed seed so every run reads the same input.
+ */
+public enum Corpus {
+
+    /**
+     * An array of small records mixing all kinds of scalars.
+     */
+    FLAT {
+        @Override
+        void append( StringBuilder sb, Random random ) {
+            sb.append( "{\"id\":" ).append( random.nextInt( Integer.MAX_VALUE ) );
+            sb.append( ",\"name\":\"" ).append( word( random ) ).append( ' ' ).append( word( random ) ).append( '"' );
+            sb.append( ",\"score\":" ).append( random.nextDouble() * 1000 );
+            sb.append( ",\"active\":" ).append( random.nextBoolean() );
+            sb.append( ",\"parent\":null,\"tags\":[\"" ).append( word( random ) ).append( "\",\"" ).append( word( random ) ).append( "\"]}" );
+        }
+    },
+
+    /**
+     * Objects and arrays nested a hundred levels deep.
+     */
+    DEEP {
+        @Override
+        void append( StringBuilder sb, Random random ) {
+            for ( int i = 0; i < 50; i++ )
+                sb.append( "{\"" ).append( word( random ) ).append( "\":[" );
+            sb.append( random.nextInt( 1000 ) );
+            for ( int i = 0; i < 50; i++ )
+                sb.append( "]}" );
+        }
+    },
+
+    /**
+     * Long strings with occasional escape sequences.
+     */
+    STRINGS {
+        @Override
+        void append( StringBuilder sb, Random random ) {
+            sb.append( '"' );
+            for ( int i = 20 + random.nextInt( 100 ); i > 0; i-- ) {
+                sb.append( word( random ) );
+                sb.append( random.nextInt( 10 ) == 0 ? "\\n\\\"" : " " );
+            }
+            sb.append( '"' );
+        }
+    },
+
+    /**
+     * Arrays of integers, large identifiers and fractional numbers with and without exponent.
+     */
+    NUMBERS {
+        @Override
+        void append( StringBuilder sb, Random random ) {
+            sb.append( '[' ).append( random.nextInt( 100000 ) );
+            sb.append( ',' ).append( random.nextLong() );
+            sb.append( ',' ).append( random.nextInt( 2000 ) - 1000 ).append( '.' ).append( random.nextInt( 100 ) );
+            sb.append( ',' ).append( random.nextDouble() );
+            sb.append( ',' ).append( random.nextGaussian() * 1e-12 );
+            sb.append( ']' );
+        }
+    },
+
+    /**
+     * Records whose names and strings are mostly made of characters outside of ascii.
+     */
+    UNICODE {
+        @Override
+        void append( StringBuilder sb, Random random ) {
+            sb.append( "{\"" ).append( UNICODE_WORDS[random.nextInt( UNICODE_WORDS.length )] ).append( "\":\"" );
+            for ( int i = 5 + random.nextInt( 20 ); i > 0; i-- )
+                sb.append( UNICODE_WORDS[random.nextInt( UNICODE_WORDS.length )] ).append( ' ' );
+            sb.append( "\"}" );
+        }
+    };
+
+    private static final String[] WORDS = { "alpha", "beta", "gamma", "delta", "epsilon", "zeta", "eta", "theta" };
+
+    private static final String[] UNICODE_WORDS = {
+            "ärger", "café", "€", "日本語", "Москва",
+            "αβγ", "😀", "العربية" };
+
+    abstract void append( StringBuilder sb, Random random );
+
+    /**
+     * Generates an array of entries at least the given number of characters long.
+     */
+    public String generate( int size ) {
+        Random random = new Random( 0 );
+        StringBuilder sb = new StringBuilder( size + 4096 );
+        sb.append( "[\n" );
+        for ( int i = 0; sb.length() < size; i++ ) {
+            if ( i > 0 )
+                sb.append( ",\n" );
+            append( sb, random );
+        }
+        return sb.append( "\n]" ).toString();
+    }
+
+    private static String word( Random random ) {
+        return WORDS[random.nextInt( WORDS.length )];
+    }
+
+}
@@ -0,0 +1,36 @@
+package net.tx0.jason.benchmarks;
+
+import net.tx0.jason.Json;
+import net.tx0.jason.JsonValue;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The document read or written by a benchmark, as text, as UTF-8 encoded bytes and as object tree.
+ */
+@State( Scope.Benchmark )
+public class Documents {
+
+    @Param( { "FLAT", "DEEP", "STRINGS", "NUMBERS", "UNICODE" } )
+    public Corpus corpus;
+
+    @Param( { "1048576" } )
+    public int size;
+
+    public String text;
+    public byte[] bytes;
+    public JsonValue value;
+
+    @Setup( Level.Trial )
+    public void setup() {
+        text = corpus.generate( size );
+        bytes = text.getBytes( StandardCharsets.UTF_8 );
+        value = Json.deserialize( text );
+    }
+
+}
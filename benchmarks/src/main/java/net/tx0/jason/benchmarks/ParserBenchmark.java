@@ -0,0 +1,24 @@
+package net.tx0.jason.benchmarks;
+
+import net.tx0.jason.Json;
+import net.tx0.jason.JsonValue;
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.io.ByteArrayInputStream;
+
+/**
+ * Building object trees with {@link Json#deserialize(net.tx0.jason.JsonReader)}.
+ */
+public class ParserBenchmark extends BenchmarkBase {
+
+    @Benchmark
+    public JsonValue utf8Bytes( Documents documents ) {
+        return Json.deserialize( Json.createReader( new ByteArrayInputStream( documents.bytes ) ) );
+    }
+
+    @Benchmark
+    public JsonValue string( Documents documents ) {
+        return Json.deserialize( documents.text );
+    }
+
+}
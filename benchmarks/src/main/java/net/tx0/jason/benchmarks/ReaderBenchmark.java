@@ -0,0 +1,64 @@
+package net.tx0.jason.benchmarks;
+
+import net.tx0.jason.Json;
+import net.tx0.jason.JsonReader;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Token throughput of {@link JsonReader} for the different kinds of input, reported as documents and as tokens per second.
+ */
+public class ReaderBenchmark extends BenchmarkBase {
+
+    @State( Scope.Thread )
+    @AuxCounters( AuxCounters.Type.OPERATIONS )
+    public static class Tokens {
+        public long tokens;
+    }
+
+    @Benchmark
+    public void utf8Bytes( Documents documents, Tokens tokens, Blackhole blackhole ) {
+        consume( Json.createReader( new ByteArrayInputStream( documents.bytes ) ), tokens, blackhole );
+    }
+
+    @Benchmark
+    public void decodedChars( Documents documents, Tokens tokens, Blackhole blackhole ) {
+        consume( Json.createReader( new InputStreamReader( new ByteArrayInputStream( documents.bytes ), StandardCharsets.UTF_8 ) ), tokens, blackhole );
+    }
+
+    @Benchmark
+    public void charSequence( Documents documents, Tokens tokens, Blackhole blackhole ) {
+        consume( Json.createReader( documents.text ), tokens, blackhole );
+    }
+
+    private static void consume( JsonReader reader, Tokens tokens, Blackhole blackhole ) {
+        while ( reader.hasNext() ) {
+            switch ( reader.next() ) {
+                case MEMBER_NAME:
+                    blackhole.consume( reader.getMemberName() );
+                    break;
+                case STRING:
+                    blackhole.consume( reader.getStringValue() );
+                    break;
+                case NUMBER:
+                    if ( reader.isIntegral() )
+                        blackhole.consume( reader.getLongValue() );
+                    else
+                        blackhole.consume( reader.getDoubleValue() );
+                    break;
+                case BOOLEAN:
+                    blackhole.consume( reader.getBooleanValue() );
+                    break;
+            }
+            tokens.tokens++;
+        }
+    }
+
+}
@@ -0,0 +1,26 @@
+package net.tx0.jason.benchmarks;
+
+import net.tx0.jason.Json;
+import net.tx0.jason.JsonConfig;
+import net.tx0.jason.JsonConfigBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Writing object trees with {@link Json#serialize(net.tx0.jason.JsonValue)} and its variants.
+ */
+public class WriterBenchmark extends BenchmarkBase {
+
+    private static final JsonConfig COMPACT = new JsonConfigBuilder().setNoLayout().build();
+
+    @Benchmark
+    public String string( Documents documents ) {
+        return Json.serialize( documents.value );
+    }
+
+    @Benchmark
+    public void compactStream( Documents documents, Blackhole blackhole ) {
+        Json.serialize( documents.value, COMPACT, new BlackholeOutputStream( blackhole ) );
+    }
+
+}
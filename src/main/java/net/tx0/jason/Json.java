@@ -1,7 +1,11 @@
 package net.tx0.jason;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 
 /**
  * <h1>Json serialization library</h1>
@@ -157,6 +161,14 @@ public abstract class Json {
         return createReader( null, inputStream );
     }
 
+    public static JsonReader createReader( CharSequence text ) {
+        return createReader( null, text );
+    }
+
+    public static JsonReader createReader( char[] text, int offset, int length ) {
+        return createReader( null, text, offset, length );
+    }
+
     public static JsonWriter createWriter( OutputStream outputStream ) {
         return createWriter( null, outputStream );
     }
@@ -166,18 +178,32 @@ public abstract class Json {
     }
 
     public static JsonValue deserialize( JsonConfig config, JsonResource resource ) {
+        boolean compact = config != null && config.isCompactDocuments();
         try {
-            return resource.readFrom( (is)-> deserialize( createReader( config, is ) ) );
+            return resource.readFrom( config, (reader)-> compact ? JsonTape.parse( reader ) : deserialize( reader ) );
         } catch ( IOException e ) {
             throw JsonException.wrap(e);
         }
     }
 
+    /**
+     * Deserializes the string, lazily if the configuration asks for it, see {@link JsonConfigBuilder#setLazyParsing()}.
+     */
     public static JsonValue deserialize( JsonConfig config, String string ) {
+        if ( config != null && config.isLazyParsing() && !config.isCompactDocuments() )
+            return JsonParser.parseLazy( config, string );
         return deserialize( config, JsonResource.forString( string ) );
     }
 
+    /**
+     * Deserializes the file, in parallel if the configuration asks for it, see {@link JsonConfigBuilder#setParallelParsing(int)}.
+     */
     public static JsonValue deserialize( JsonConfig config, File file ) throws IOException {
+        if ( config != null && JsonParallelParser.applies( config, file.length() ) ) {
+            try ( FileChannel channel = FileChannel.open( file.toPath(), StandardOpenOption.READ ) ) {
+                return JsonParallelParser.parse( config, channel );
+            }
+        }
         try {
             return deserialize(config, JsonResource.forFile(file));
         } catch ( JsonIOException e ) {
@@ -185,6 +211,18 @@ public abstract class Json {
         }
     }
 
+    public static JsonValue deserialize( JsonConfig config, byte[] bytes ) {
+        return deserialize( config, ByteBuffer.wrap( bytes ) );
+    }
+
+    /**
+     * Deserializes the bytes between the position and the limit of the buffer, in parallel if the configuration asks
+     * for it, see {@link JsonConfigBuilder#setParallelParsing(int)}. The position of the buffer is not changed.
+     */
+    public static JsonValue deserialize( JsonConfig config, ByteBuffer buffer ) {
+        return JsonParallelParser.parse( config == null ? getDefaultConfig() : config, buffer );
+    }
+
     public static JsonValue deserialize( JsonConfig config, ClassLoader classLoader, String name ) {
         return deserialize( config, JsonResource.forClasspath( classLoader, name ) );
     }
@@ -249,18 +287,127 @@ public abstract class Json {
     public static JsonReader createReader( JsonConfig config, Reader reader ) {
         if ( config == null )
             config = getDefaultConfig();
-        return new JsonReaderImpl( config, new JsonScanner( config, reader ) );
+        return new JsonReaderImpl( config, JsonScanner.create( config, reader ) );
     }
 
     public static JsonReader createReader( JsonConfig config, InputStream inputStream ) {
         if ( config == null )
             config = getDefaultConfig();
-        return new JsonReaderImpl( config, new JsonScanner( config, inputStream) );
+        return new JsonReaderImpl( config, JsonScanner.create( config, inputStream ) );
+    }
+
+    /**
+     * Creates a reader of any number of json texts following each other on the supplied {@link Reader}, such as
+     * messages on a socket. Each text is followed by {@link JsonToken#END_DOCUMENT}, and {@link JsonReader#hasNext()}
+     * is false once only whitespace remains. {@link #deserialize(JsonReader)} reads one text including its end.
+     *
+     * The caller is still responsible to close the supplied reader.
+     */
+    public static JsonReader createMultiDocumentReader( JsonConfig config, Reader reader ) {
+        if ( config == null )
+            config = getDefaultConfig();
+        return new JsonReaderImpl( config, JsonScanner.create( config, reader ), true );
+    }
+
+    /**
+     * Creates a reader of any number of json texts following each other on the supplied {@link InputStream},
+     * see {@link #createMultiDocumentReader(JsonConfig, Reader)}.
+     *
+     * The caller is still responsible to close the input stream.
+     */
+    public static JsonReader createMultiDocumentReader( JsonConfig config, InputStream inputStream ) {
+        if ( config == null )
+            config = getDefaultConfig();
+        return new JsonReaderImpl( config, JsonScanner.create( config, inputStream ), true );
+    }
+
+    /**
+     * Creates a reader of one json text whose UTF-8 encoded bytes are fed by the caller as they arrive,
+     * see {@link JsonFeedReader}.
+     */
+    public static JsonFeedReader createFeedReader( JsonConfig config ) {
+        return createFeedReader( config, false );
+    }
+
+    /**
+     * Creates a reader of UTF-8 encoded bytes fed by the caller as they arrive, holding one json text or,
+     * if requested, any number of texts as read by {@link #createMultiDocumentReader(JsonConfig, Reader)}.
+     */
+    public static JsonFeedReader createFeedReader( JsonConfig config, boolean multipleDocuments ) {
+        if ( config == null )
+            config = getDefaultConfig();
+        return new JsonFeedReader( config, multipleDocuments );
+    }
+
+    /**
+     * Creates a reader returning the values of the JSON Lines text read from the stream one by one.
+     * The caller is still responsible to close the input stream.
+     */
+    public static JsonLineReader readLines( JsonConfig config, InputStream inputStream ) {
+        return readLines( config, inputStream, 0, true );
+    }
+
+    /**
+     * Creates a reader returning the values of the JSON Lines text read from the stream, while up to the given
+     * number of chunks of lines are parsed in parallel. Values are returned in the order of the input if requested,
+     * otherwise in the order chunks are parsed. The caller is still responsible to close the input stream.
+     */
+    public static JsonLineReader readLines( JsonConfig config, InputStream inputStream, int parallelism, boolean ordered ) {
+        if ( config == null )
+            config = getDefaultConfig();
+        return new JsonLineReader( config, inputStream, false, parallelism, ordered );
+    }
+
+    /**
+     * Creates a reader returning the values of the JSON Lines file one by one, the file is closed with the reader.
+     */
+    public static JsonLineReader readLines( JsonConfig config, File file ) throws IOException {
+        return readLines( config, file, 0, true );
+    }
+
+    /**
+     * Creates a reader returning the values of the JSON Lines file, while up to the given number of chunks of lines
+     * are parsed in parallel. The file is closed with the reader.
+     */
+    public static JsonLineReader readLines( JsonConfig config, File file, int parallelism, boolean ordered ) throws IOException {
+        if ( config == null )
+            config = getDefaultConfig();
+        FileInputStream stream = new FileInputStream( file );
+        try {
+            return new JsonLineReader( config, stream, true, parallelism, ordered );
+        } catch ( RuntimeException e ) {
+            stream.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Creates a reader scanning the supplied characters in place, without encoding or copying them.
+     * The sequence must not be modified while it is read.
+     */
+    public static JsonReader createReader( JsonConfig config, CharSequence text ) {
+        if ( config == null )
+            config = getDefaultConfig();
+        return new JsonReaderImpl( config, JsonScanner.create( config, text ) );
+    }
+
+    /**
+     * Creates a reader scanning the supplied characters in place, without copying them.
+     * The array must not be modified while it is read.
+     */
+    public static JsonReader createReader( JsonConfig config, char[] text, int offset, int length ) {
+        if ( config == null )
+            config = getDefaultConfig();
+        if ( offset < 0 || length < 0 || offset > text.length - length )
+            throw new IndexOutOfBoundsException();
+        return new JsonReaderImpl( config, JsonScanner.create( config, text, offset, length ) );
     }
 
     public static JsonWriter createWriter( JsonConfig config, OutputStream outputStream ) {
         if ( config == null )
             config = getDefaultConfig();
+        if ( StandardCharsets.UTF_8.equals( config.getCharset() ) )
+            return new JsonWriterImpl( config, outputStream );
         return createWriter( config, new OutputStreamWriter( outputStream, config.getCharset() ) );
     }
 
@@ -271,7 +418,9 @@ public abstract class Json {
     }
 
     /**
-     * Copies json tokens from the supplied source to the supplied target.
+     * Copies json tokens from the supplied source to the supplied target. A reader of several texts is copied up to
+     * the end of the current text, see {@link #createMultiDocumentReader(JsonConfig, Reader)}, so each call copies
+     * one text.
      */
     public static void copy( JsonReader source, JsonWriter target ) {
 
@@ -307,6 +456,8 @@ public abstract class Json {
                 case STRING:
                     target.write( source.getStringValue() );
                     break;
+                case END_DOCUMENT:
+                    return;
                 default:
                     throw new IllegalStateException( "Unknown json token encountered" );
             }
@@ -9,7 +9,8 @@ import java.util.*;
  * A json array.
  *
  * <p>
- *     The array stores all values as instances of {@link JsonValue}.
+ *     The array stores all values as instances of {@link JsonValue}, except for parsed or created arrays
+ *     holding only integers, only doubles or only booleans, which are stored as primitives.
  * </p>
  * <p>
  *     Typed getters and putters exist to transfer to wrap/unwrap java values.
@@ -20,7 +21,9 @@ import java.util.*;
  */
 public class JsonArray extends JsonValue implements List<JsonValue> {
 
-	private final List<JsonValue> list;
+	private List<JsonValue> list;
+	// the source text of an array read lazily, null once parsed
+	private JsonSpan span;
 
 	public JsonArray() {
 		this( new ArrayList<JsonValue>() );
@@ -30,14 +33,34 @@ public class JsonArray extends JsonValue implements List<JsonValue> {
 		this.list = list;
 	}
 
+	JsonArray( JsonSpan span ) {
+		this.span = span;
+	}
+
+	/**
+	 * The elements, parsed on first access if the array has been read lazily.
+	 */
+	private List<JsonValue> list() {
+		if ( span != null ) {
+			list = JsonParser.parseLazyElements( span );
+			span = null;
+		}
+		return list;
+	}
+
 	@Override
 	void write(JsonWriter writer) {
+		List<JsonValue> list = list();
 		writer.writeBeginArray();
-		for ( JsonValue value : list ) {
-			if ( value == null ) {
-				writer.writeNull();
-			} else {
-				value.write(writer);
+		if ( list instanceof JsonPrimitiveList ) {
+			( (JsonPrimitiveList) list ).write( writer );
+		} else {
+			for ( JsonValue value : list ) {
+				if ( value == null ) {
+					writer.writeNull();
+				} else {
+					value.write(writer);
+				}
 			}
 		}
 		writer.writeEndArray();
@@ -54,17 +77,26 @@ public class JsonArray extends JsonValue implements List<JsonValue> {
 	}
 
 	public boolean getBoolean( int index ) {
-		JsonValue v = get(index);
+		List<JsonValue> list = list();
+		if ( list instanceof JsonPrimitiveList )
+			return ( (JsonPrimitiveList) list ).getBoolean( index );
+		JsonValue v = list.get(index);
 		return v == null ? null : v.asBoolean();
 	}
 
 	public long getLong( int index ) {
-		JsonValue v = get(index);
+		List<JsonValue> list = list();
+		if ( list instanceof JsonPrimitiveList )
+			return ( (JsonPrimitiveList) list ).getLong( index );
+		JsonValue v = list.get(index);
 		return v == null ? null : v.asLong();
 	}
 
 	public double getDouble( int index ) {
-		JsonValue v = get(index);
+		List<JsonValue> list = list();
+		if ( list instanceof JsonPrimitiveList )
+			return ( (JsonPrimitiveList) list ).getDouble( index );
+		JsonValue v = list.get(index);
 		return v == null ? null : v.asDouble();
 	}
 
@@ -90,7 +122,7 @@ public class JsonArray extends JsonValue implements List<JsonValue> {
 
 	@Override
 	public void add(int index, JsonValue element) {
-		list.add( index, element );
+		list().add( index, element );
 	}
 
 	public boolean add(int value) { return add( create(value) ); }
@@ -105,122 +137,122 @@ public class JsonArray extends JsonValue implements List<JsonValue> {
 
 	@Override
 	public boolean add(JsonValue e) {
-		return list.add( e );
+		return list().add( e );
 	}
 
 	@Override
 	public boolean addAll(Collection<? extends JsonValue> c) {
-		return list.addAll( c );
+		return list().addAll( c );
 	}
 
 	@Override
 	public boolean addAll(int index, Collection<? extends JsonValue> c) {
-		return list.addAll( index, c );
+		return list().addAll( index, c );
 	}
 
 	@Override
 	public void clear() {
-		list.clear();
+		list().clear();
 	}
 
 	@Override
 	public boolean contains(Object o) {
-		return list.contains( o );
+		return list().contains( o );
 	}
 
 	@Override
 	public boolean containsAll(Collection<?> c) {
-		return list.containsAll( c );
+		return list().containsAll( c );
 	}
 
 	@Override
 	public boolean equals(Object o) {
-		return list.equals( o );
+		return list().equals( o );
 	}
 
 	@Override
 	public JsonValue get(int index) {
-		return list.get( index );
+		return list().get( index );
 	}
 
 	@Override
 	public int hashCode() {
-		return list.hashCode();
+		return list().hashCode();
 	}
 
 	@Override
 	public int indexOf(Object o) {
-		return list.indexOf( o );
+		return list().indexOf( o );
 	}
 
 	@Override
 	public boolean isEmpty() {
-		return list.isEmpty();
+		return list().isEmpty();
 	}
 
 	@Override
 	public Iterator<JsonValue> iterator() {
-		return list.iterator();
+		return list().iterator();
 	}
 
 	@Override
 	public int lastIndexOf(Object o) {
-		return list.lastIndexOf( o );
+		return list().lastIndexOf( o );
 	}
 
 	@Override
 	public ListIterator<JsonValue> listIterator() {
-		return list.listIterator();
+		return list().listIterator();
 	}
 
 	@Override
 	public ListIterator<JsonValue> listIterator(int index) {
-		return list.listIterator( index );
+		return list().listIterator( index );
 	}
 
 	@Override
 	public JsonValue remove(int index) {
-		return list.remove( index );
+		return list().remove( index );
 	}
 
 	@Override
 	public boolean remove(Object o) {
-		return list.remove( o );
+		return list().remove( o );
 	}
 
 	@Override
 	public boolean removeAll(Collection<?> c) {
-		return list.removeAll( c );
+		return list().removeAll( c );
 	}
 
 	@Override
 	public boolean retainAll(Collection<?> c) {
-		return list.retainAll( c );
+		return list().retainAll( c );
 	}
 
 	@Override
 	public JsonValue set(int index, JsonValue element) {
-		return list.set( index, element );
+		return list().set( index, element );
 	}
 
 	@Override
 	public int size() {
-		return list.size();
+		return list().size();
 	}
 
 	@Override
 	public List<JsonValue> subList(int fromIndex, int toIndex) {
-		return list.subList( fromIndex, toIndex );
+		return list().subList( fromIndex, toIndex );
 	}
 
 	@Override
 	public Object[] toArray() {
-		return list.toArray();
+		return list().toArray();
 	}
 
 	@Override
 	public <T> T[] toArray(T[] a) {
-		return list.toArray( a );
+		return list().toArray( a );
 	}
 
 	@Override
@@ -0,0 +1,634 @@
+package net.tx0.jason;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+
+/**
+ * Scanning engine working on characters, either read from a {@link Reader}, decoded from an {@link InputStream}
+ * or taken right from a {@link CharSequence} or char array held in memory.
+ *
+ * Strings without escape sequences are not copied to the text buffer, but extracted from the input
+ * when the text is requested.
+ */
+final class JsonCharScanner extends JsonScanner {
+
+	private final Charset defaultCharset;
+
+	private InputStream inputStream;
+	private Reader reader;
+	private CharSequence sequence;
+	private CharsetDecoder decoder;
+
+	private ByteBuffer input;
+	private boolean inputEof, flushed;
+
+	// characters between pos and limit have not been scanned yet
+	private CharBuffer output;
+	private int pos, limit;
+	private boolean eof;
+
+	// capacity of the buffer filled from the input stream or reader
+	private int capacity;
+
+	// character offset of the first character in the output buffer and of the current line
+	private long base, lineStart;
+	private int line = 1;
+
+	// the current string if it can be taken from the output buffer, spanStart is negative otherwise
+	private int spanStart = -1, spanEnd;
+
+	JsonCharScanner( JsonConfig config, InputStream inputStream ) {
+
+		super( config );
+
+		this.defaultCharset = config.getCharset();
+		this.inputStream = inputStream;
+		this.capacity = bufferSize;
+
+		input = ByteBuffer.allocate(capacity);
+		output = CharBuffer.allocate(capacity);
+
+		input.flip();
+		output.flip();
+	}
+
+	JsonCharScanner( JsonConfig config, Reader reader ) {
+
+		super( config );
+
+		this.defaultCharset = null;
+		this.reader = reader;
+		this.capacity = bufferSize;
+
+		output = CharBuffer.allocate(capacity);
+		output.flip();
+	}
+
+	/**
+	 * Creates a scanner reading the characters of the sequence without copying them.
+	 */
+	JsonCharScanner( JsonConfig config, CharSequence sequence ) {
+		this( config, sequence, 0, sequence.length() );
+	}
+
+	/**
+	 * Creates a scanner reading a range of the characters of the sequence without copying them.
+	 */
+	JsonCharScanner( JsonConfig config, CharSequence sequence, int offset, int length ) {
+
+		super( config );
+
+		this.defaultCharset = null;
+		this.sequence = sequence;
+
+		output = CharBuffer.wrap(sequence, offset, offset + length);
+		pos = offset;
+		limit = offset + length;
+		base = -offset;
+	}
+
+	/**
+	 * Creates a scanner reading the characters of the array without copying them.
+	 */
+	JsonCharScanner( JsonConfig config, char[] chars, int offset, int length ) {
+
+		super( config );
+
+		this.defaultCharset = null;
+
+		output = CharBuffer.wrap(chars, offset, length);
+		pos = offset;
+		limit = offset + length;
+		base = -offset;
+	}
+
+	private boolean fillInputBuffer() throws IOException {
+
+		int len, requested;
+
+		// input in read-mode
+
+		if ( capacity != input.capacity() ) {
+			input = ByteBuffer.allocate( capacity ).put( input );
+		} else {
+			input.compact();
+		}
+
+		requested = input.remaining();
+		len = inputStream.read( input.array(), input.position(), requested );
+
+		if ( len == EOF ) {
+			input.flip();
+			return false;
+		}
+
+		input.position( input.position() + len );
+		input.flip();
+
+		capacity = adapt( capacity, requested, len );
+
+		return true;
+	}
+
+	private boolean setupDecoder() throws IOException {
+
+		if ( !fillInputBuffer() )
+			return false;
+
+		decoder = detectCharset( input, defaultCharset ).newDecoder();
+
+		return true;
+	}
+
+	/**
+	 * Discards the scanned characters and reads more input.
+	 *
+	 * @return false if no more input is available
+	 */
+	private boolean fill() throws IOException {
+
+		if ( eof )
+			return false;
+
+		if ( reader == null && inputStream == null ) {
+			eof = true;
+			return false;
+		}
+
+		// output in write-mode until flipped again
+
+		output.limit( limit ).position( pos );
+
+		if ( capacity != output.capacity() ) {
+			output = CharBuffer.allocate( capacity ).put( output );
+		} else {
+			output.compact();
+		}
+
+		base += pos;
+		pos = 0;
+
+		if ( reader != null ) {
+
+			int r, requested;
+
+			requested = output.remaining();
+			r = reader.read( output.array(), output.position(), requested );
+			if ( r != EOF ) {
+				output.position( output.position() + r );
+				capacity = adapt( capacity, requested, r );
+			}
+
+		} else {
+
+			CoderResult cr;
+
+			while ( output.position() == 0 && !flushed ) {
+
+				if ( decoder == null && !setupDecoder() ) {
+					flushed = true;
+					break;
+				}
+
+				cr = decoder.decode( input, output, inputEof );
+				if ( cr.isError() )
+					cr.throwException();
+
+				if ( inputEof ) {
+					cr = decoder.flush( output );
+					if ( cr.isError() )
+						cr.throwException();
+					flushed = true;
+				} else if ( output.position() == 0 ) {
+					inputEof = !fillInputBuffer();
+				}
+			}
+		}
+
+		output.flip();
+		limit = output.limit();
+
+		if ( limit == 0 ) {
+			eof = true;
+			return false;
+		}
+
+		return true;
+	}
+
+	private int peek() throws IOException {
+		if ( pos == limit && !fill() )
+			return EOF;
+		return output.get( pos );
+	}
+
+	private int read() throws IOException {
+		if ( pos == limit && !fill() )
+			return EOF;
+		return output.get( pos++ );
+	}
+
+	private void mark() {
+		startPosition = base + pos;
+		startLine = line;
+		startColumn = (int) ( startPosition - lineStart ) + 1;
+	}
+
+	/**
+	 * Appends characters from the output buffer to the text.
+	 */
+	private void append( int from, int to ) {
+		if ( output.hasArray() ) {
+			text.append( output.array(), output.arrayOffset() + from, to - from );
+		} else {
+			text.append( sequence, from, to );
+		}
+	}
+
+	@Override
+	String text() {
+		if ( spanStart < 0 )
+			return super.text();
+		if ( output.hasArray() )
+			return new String( output.array(), output.arrayOffset() + spanStart, spanEnd - spanStart );
+		return sequence.subSequence( spanStart, spanEnd ).toString();
+	}
+
+	@Override
+	String name( JsonSymbolTable symbols ) {
+		if ( spanStart < 0 )
+			return super.name( symbols );
+		if ( output.hasArray() )
+			return symbols.get( output.array(), output.arrayOffset() + spanStart, spanEnd - spanStart );
+		return symbols.get( sequence, spanStart, spanEnd );
+	}
+
+	@Override
+	int next() throws IOException {
+
+		int c;
+
+		text.setLength( 0 );
+		fraction = 0;
+		exponent = 0;
+		spanStart = -1;
+
+		c = space();
+		mark();
+
+		if ( c == EOF )
+			return EOF;
+
+		pos++;
+
+		switch ( c ) {
+			case ',':
+			case ':':
+			case '{':
+			case '}':
+			case '[':
+			case ']':
+				text.append( (char) c );
+				return c;
+
+			case '"':
+				scanString();
+				return TOKEN_STRING;
+
+			// no leading zeros
+			case '0':
+				text.append( '0' );
+				c = peek();
+				if ( c == '.' ) {
+					text.append( (char) read() );
+					return scanNumberFraction();
+				} else if ( c == 'e' ) {
+					text.append( (char) read() );
+					return scanNumberExponent();
+				}
+				return TOKEN_INTEGER;
+
+			case '-':
+				text.append( '-' );
+				c = peek();
+				if ( c == '0' ) {
+					text.append( (char) read() );
+					c = peek();
+					if ( c == '.' ) {
+						text.append( (char) read() );
+						return scanNumberFraction();
+					} else if ( c == 'e' ) {
+						text.append( (char) read() );
+						return scanNumberExponent();
+					}
+					return TOKEN_INTEGER;
+				} else if ( c >= '1' && c <= '9' ) {
+					text.append( (char) read() );
+					return scanNumber();
+				}
+				throw error("invalid number (negative without integer part)");
+
+			case '1':case '2': case '3': case '4':
+			case '5':case '6':case '7': case '8': case '9':
+				text.append( (char) c );
+				return scanNumber();
+
+			case 't':
+				if ( read() == 'r' && read() == 'u' && read() == 'e' )
+					return TOKEN_TRUE;
+				throw error( "Illegal content" );
+			case 'f':
+				if ( read() == 'a' && read() == 'l' && read() == 's' && read() == 'e' )
+					return TOKEN_FALSE;
+				throw error( "Illegal content" );
+			case 'n':
+				if ( read() == 'u' && read() == 'l' && read() == 'l' )
+					return TOKEN_NULL;
+				throw error( "Illegal content" );
+
+			default:
+				throw error( "Illegal content '" + (char) c + "'" );
+		}
+	}
+
+	/**
+	 * Skips white space.
+	 *
+	 * @return the next character, which is not consumed, or {@link #EOF}
+	 */
+	private int space() throws IOException {
+
+		int c;
+
+		do {
+
+			if ( pos == limit && !fill() )
+				return EOF;
+
+			c = output.get( pos );
+
+			if ( c == ' ' || c == '\t' || c == '\r' ) {
+				pos++;
+			} else if ( c == '\n' ) {
+				pos++;
+				line++;
+				lineStart = base + pos;
+			} else {
+				return c;
+			}
+
+		} while ( true );
+	}
+
+	@Override
+	int skip() throws IOException {
+
+		int c;
+
+		text.setLength( 0 );
+		spanStart = -1;
+
+		c = space();
+
+		if ( c == '"' ) {
+			mark();
+			pos++;
+			skipString();
+			return TOKEN_STRING;
+		} else if ( c == '{' || c == '[' ) {
+			mark();
+			pos++;
+			if ( skipChildren() != ( c == '{' ? '}' : ']' ) )
+				throw error( c == '{' ? "} expected" : "] expected" );
+			return c;
+		}
+
+		return next();
+	}
+
+	@Override
+	int skipChildren() throws IOException {
+
+		int c, depth = 1;
+
+		skippedDepth = 1;
+
+		do {
+
+			if ( pos == limit && !fill() ) {
+				mark();
+				throw error( "Unexpected end of input" );
+			}
+
+			c = output.get( pos );
+
+			switch ( c ) {
+				case '"':
+					pos++;
+					skipString();
+					break;
+				case '{':
+				case '[':
+					pos++;
+					enter( ++depth, c );
+					if ( depth > skippedDepth )
+						skippedDepth = depth;
+					break;
+				case '}':
+				case ']':
+					// the kind of the outermost container is checked by the caller
+					if ( depth > 1 && !closes( depth, c ) ) {
+						mark();
+						throw error( c == '}' ? "] expected" : "} expected" );
+					}
+					if ( --depth == 0 ) {
+						mark();
+						pos++;
+						return c;
+					}
+					pos++;
+					break;
+				case '\n':
+					pos++;
+					line++;
+					lineStart = base + pos;
+					break;
+				default:
+					pos++;
+			}
+
+		} while ( true );
+	}
+
+	private void skipString() throws IOException {
+
+		int c;
+
+		do {
+
+			if ( pos == limit && !fill() )
+				throw error( "Unterminated string" );
+
+			c = output.get( pos++ );
+
+			if ( c == '\\' ) {
+				if ( pos == limit && !fill() )
+					throw error( "Unterminated string" );
+				pos++;
+			}
+		} while ( c != '"' );
+	}
+
+	private int scanNumber() throws IOException {
+		int c;
+		do {
+			c = peek();
+			if ( !( c >= '0' && c <= '9' ) ) {
+				if ( c == '.' ) {
+					text.append( (char) read() );
+					return scanNumberFraction();
+				}
+				if ( c == 'e' || c == 'E' ) {
+					text.append( (char) read() );
+					return scanNumberExponent();
+				}
+				return TOKEN_INTEGER;
+			}
+			text.append( (char) c );
+			pos++;
+		} while ( true );
+	}
+
+	private int scanNumberFraction() throws IOException {
+
+		int c;
+
+		fraction = text.length();
+		c = peek();
+
+		if ( c < '0' || c > '9' )
+			throw error( "Fractional digits expected" );
+
+		do {
+			text.append( (char) c );
+			pos++;
+			c = peek();
+		} while ( c >= '0' && c <= '9' );
+
+		if ( c == 'e' || c == 'E' ) {
+			text.append( (char) read() );
+			return scanNumberExponent();
+		}
+
+		return TOKEN_FRACTIONAL_NUMBER;
+	}
+
+	private int scanNumberExponent() throws IOException {
+
+		int c;
+
+		exponent = text.length();
+		c = peek();
+
+		if ( c == '-' || c == '+' ) {
+			text.append( (char) read() );
+			c = peek();
+		}
+
+		if ( c < '0' || c > '9' )
+			throw error( "Exponential digits expected" );
+
+		do {
+			text.append( (char) c );
+			pos++;
+			c = peek();
+		} while ( c >= '0' && c <= '9' );
+
+		return TOKEN_FRACTIONAL_NUMBER;
+	}
+
+	private void scanString() throws IOException {
+
+		int c, p, l;
+		boolean copied = false;
+
+		do {
+
+			// find the run of characters needing no treatment
+			p = pos;
+			l = limit;
+			while ( p < l ) {
+				c = output.get( p );
+				if ( c < 0x20 || c == '"' || c == '\\' )
+					break;
+				p++;
+			}
+
+			if ( p < l && !copied && output.get( p ) == '"' ) {
+				// the string is contained in the buffer as is
+				spanStart = pos;
+				spanEnd = p;
+				pos = p + 1;
+				return;
+			}
+
+			copied = true;
+			append( pos, p );
+			pos = p;
+
+			if ( p == l ) {
+				if ( !fill() )
+					throw error( "Unterminated string" );
+				continue;
+			}
+
+			c = output.get( pos++ );
+
+			if ( c == '"' ) {
+				return;
+			} else if ( c == '\\' ) {
+				c = read();
+				switch ( c ) {
+					case '"': text.append( '"' ); break;
+					case '\\': text.append( '\\' ); break;
+					case '/': text.append( '/' ); break;
+					case 'b': text.append( '\b' ); break;
+					case 'f': text.append( '\f' ); break;
+					case 'n': text.append( '\n' ); break;
+					case 'r': text.append( '\r' ); break;
+					case 't': text.append( '\t' ); break;
+					case 'u':
+					{
+						int v = 0;
+						v = xdigit() << 12;
+						v += xdigit() << 8;
+						v += xdigit() << 4;
+						v += xdigit();
+						text.appendCodePoint( v );
+						break;
+					}
+					default:
+						throw error( "Illegal escape character" );
+				}
+			} else {
+				throw error( "Control character in string" );
+			}
+
+		} while ( true );
+	}
+
+	private int xdigit() throws IOException {
+		int c = read();
+		if ( c >= '0' && c <= '9' ) return c - '0';
+		if ( c >= 'a' && c <= 'f' ) return 10 + c - 'a';
+		if ( c >= 'A' && c <= 'F' ) return 10 + c - 'A';
+		throw error( "Illegal content" );
+	}
+
+}
@@ -15,19 +15,49 @@ public class JsonConfig {
     private final boolean useFloatingPoint;
     private final Charset charset;
     private final int maximumDepth;
+    private final int inputBufferSize;
+    private final int maximumInputBufferSize;
+    private final int outputBufferSize;
+    private final boolean memoryMappedFiles;
+    private final JsonSymbolTable symbolTable;
+    private final JsonShapeTable shapeTable;
+    private final int inlineArrayLength;
+    private final boolean lazyParsing;
+    private final boolean compactDocuments;
+    private final int parallelParsingSize;
 
-    JsonConfig( boolean layout, boolean strict, boolean useFloatingPoint, Charset charset, int maximumDepth ) {
+    JsonConfig( boolean layout, boolean strict, boolean useFloatingPoint, Charset charset, int maximumDepth,
+                int inputBufferSize, int maximumInputBufferSize, int outputBufferSize, boolean memoryMappedFiles,
+                int symbolTableSize, int shapeTableSize, int inlineArrayLength, boolean lazyParsing,
+                boolean compactDocuments, int parallelParsingSize ) {
         this.layout = layout;
         this.strict = strict;
         this.useFloatingPoint = useFloatingPoint;
         this.charset = charset;
         this.maximumDepth = maximumDepth;
+        this.inputBufferSize = inputBufferSize;
+        this.maximumInputBufferSize = maximumInputBufferSize;
+        this.outputBufferSize = outputBufferSize;
+        this.memoryMappedFiles = memoryMappedFiles;
+        this.symbolTable = symbolTableSize > 0 ? new JsonSymbolTable( symbolTableSize ) : null;
+        this.shapeTable = shapeTableSize > 0 ? new JsonShapeTable( shapeTableSize ) : null;
+        this.inlineArrayLength = inlineArrayLength;
+        this.lazyParsing = lazyParsing;
+        this.compactDocuments = compactDocuments;
+        this.parallelParsingSize = parallelParsingSize;
     }
 
     public boolean isLayout() {
         return layout;
     }
 
+    /**
+     * The maximum length of arrays of scalars kept on one line when pretty printing, zero if arrays are never inlined.
+     */
+    public int getInlineArrayLength() {
+        return inlineArrayLength;
+    }
+
     public boolean isStrict() {
         return strict;
     }
@@ -43,4 +73,70 @@ public class JsonConfig {
     public int getMaximumDepth() {
         return maximumDepth;
     }
+
+    public int getInputBufferSize() {
+        return inputBufferSize;
+    }
+
+    /**
+     * The size input buffers may grow to, equal to {@link #getInputBufferSize()} if buffers are not adaptive.
+     */
+    public int getMaximumInputBufferSize() {
+        return maximumInputBufferSize;
+    }
+
+    public boolean isAdaptiveInputBuffers() {
+        return maximumInputBufferSize > inputBufferSize;
+    }
+
+    public int getOutputBufferSize() {
+        return outputBufferSize;
+    }
+
+    public boolean isMemoryMappedFiles() {
+        return memoryMappedFiles;
+    }
+
+    public boolean isLazyParsing() {
+        return lazyParsing;
+    }
+
+    public boolean isCompactDocuments() {
+        return compactDocuments;
+    }
+
+    /**
+     * The size in bytes from which arrays are parsed in parallel, zero if texts are always parsed sequentially.
+     */
+    public int getParallelParsingSize() {
+        return parallelParsingSize;
+    }
+
+    /**
+     * The number of member names kept in the symbol table, zero if member names are not looked up.
+     */
+    public int getSymbolTableSize() {
+        return symbolTable != null ? symbolTable.size() : 0;
+    }
+
+    /**
+     * The symbol table shared by all readers using this configuration, null if there is none.
+     */
+    JsonSymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+
+    /**
+     * The number of object shapes kept in the shape table, zero if parsed objects keep their own member names.
+     */
+    public int getShapeTableSize() {
+        return shapeTable != null ? shapeTable.size() : 0;
+    }
+
+    /**
+     * The shape table shared by all documents parsed using this configuration, null if there is none.
+     */
+    JsonShapeTable getShapeTable() {
+        return shapeTable;
+    }
 }
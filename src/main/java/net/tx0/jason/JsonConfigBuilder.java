@@ -15,6 +15,16 @@ public class JsonConfigBuilder {
     private boolean useFloatingPoint = false;
     private Charset charset = StandardCharsets.UTF_8;
     private int maximumDepth = 1000;
+    private int inputBufferSize = 1 << 10;
+    private int maximumInputBufferSize = 0;
+    private int outputBufferSize = 1 << 12;
+    private boolean memoryMappedFiles = false;
+    private int symbolTableSize = 0;
+    private int shapeTableSize = 0;
+    private int inlineArrayLength = 0;
+    private boolean lazyParsing = false;
+    private boolean compactDocuments = false;
+    private int parallelParsingSize = 0;
 
     public JsonConfigBuilder() {
     }
@@ -36,6 +46,26 @@ public class JsonConfigBuilder {
         return this;
     }
 
+    /**
+     * When producing layout, {@link JsonWriter} instances keep arrays consisting of scalars only on one line,
+     * like <code>[1, 2, 3]</code>, as long as they take no more than the given number of characters.
+     * Longer arrays and arrays containing objects or arrays are spread across lines.
+     */
+    public JsonConfigBuilder setInlineArrays( int maximumLength ) {
+        if ( maximumLength < 2 )
+            throw new IllegalArgumentException( "Inline array length too small (" + maximumLength + ")" );
+        this.inlineArrayLength = maximumLength;
+        return this;
+    }
+
+    /**
+     * When producing layout, {@link JsonWriter} instances put every array element on a line of its own.
+     */
+    public JsonConfigBuilder setNoInlineArrays() {
+        this.inlineArrayLength = 0;
+        return this;
+    }
+
     /**
      * The {@link JsonReader} instances try to parse fractional numbers
      * as doubles.
@@ -85,8 +115,183 @@ public class JsonConfigBuilder {
         return this;
     }
 
+    /**
+     * The size of the buffers {@link JsonReader} instances read input into, in bytes or characters.
+     * If buffers are adaptive this is the initial size.
+     */
+    public JsonConfigBuilder setInputBufferSize( int inputBufferSize ) {
+        this.inputBufferSize = checkBufferSize( inputBufferSize );
+        return this;
+    }
+
+    /**
+     * The {@link JsonReader} instances start with buffers of the input buffer size and double them,
+     * up to the given size, whenever consecutive reads filled them completely.
+     * Small inputs are read with small buffers, while large inputs are read in large blocks.
+     */
+    public JsonConfigBuilder setAdaptiveInputBuffers( int maximumInputBufferSize ) {
+        this.maximumInputBufferSize = checkBufferSize( maximumInputBufferSize );
+        return this;
+    }
+
+    /**
+     * The {@link JsonReader} instances always use buffers of the input buffer size, the default.
+     */
+    public JsonConfigBuilder setNoAdaptiveInputBuffers() {
+        this.maximumInputBufferSize = 0;
+        return this;
+    }
+
+    /**
+     * The size of the buffer {@link JsonWriter} instances collect output in before it is written
+     * to the underlying stream or writer.
+     */
+    public JsonConfigBuilder setOutputBufferSize( int outputBufferSize ) {
+        this.outputBufferSize = checkBufferSize( outputBufferSize );
+        return this;
+    }
+
+    /**
+     * Files are read from memory mapped buffers, as long as they are UTF-8 encoded and larger than the maximum
+     * input buffer size. The contents of a file are scanned right from the page cache without being copied.
+     * Mapped buffers are only released when they are garbage collected, until then the file stays open, and it
+     * must not be truncated while it is read.
+     */
+    public JsonConfigBuilder setMemoryMappedFiles() {
+        this.memoryMappedFiles = true;
+        return this;
+    }
+
+    /**
+     * Files are read as streams, the default.
+     */
+    public JsonConfigBuilder setNoMemoryMappedFiles() {
+        this.memoryMappedFiles = false;
+        return this;
+    }
+
+    /**
+     * Member names read by {@link JsonReader} instances are looked up in a table of canonical strings, so names
+     * repeated across objects are not allocated again and objects built from them share their keys.
+     * The table holds up to the given number of names, rounded up to a power of two, and is shared
+     * by all readers using the configuration built, for instance all readers created by one {@link JsonFactory}.
+     */
+    public JsonConfigBuilder setSymbolTable( int size ) {
+        if ( size < 1 )
+            throw new IllegalArgumentException( "Symbol table size too small (" + size + ")" );
+        this.symbolTableSize = size;
+        return this;
+    }
+
+    /**
+     * Every member name read by {@link JsonReader} instances is a new string.
+     */
+    public JsonConfigBuilder setNoSymbolTable() {
+        this.symbolTableSize = 0;
+        return this;
+    }
+
+    /**
+     * Parsed objects having the same member names in the same order share one immutable array of names and its
+     * lookup table, and only keep an array of values. Record oriented documents, like lines of NDJSON, take far less
+     * memory this way. An object copies the names once members are added or removed, replacing values keeps sharing.
+     *
+     * The table holds up to the given number of shapes, rounded up to a power of two, and is shared by everything
+     * parsed using the configuration built. Works best together with a symbol table.
+     */
+    public JsonConfigBuilder setShapeTable( int size ) {
+        if ( size < 1 )
+            throw new IllegalArgumentException( "Shape table size too small (" + size + ")" );
+        this.shapeTableSize = size;
+        return this;
+    }
+
+    /**
+     * Every parsed object keeps its own member names.
+     */
+    public JsonConfigBuilder setNoShapeTable() {
+        this.shapeTableSize = 0;
+        return this;
+    }
+
+    /**
+     * Texts deserialized from strings are parsed lazily. Only the members or elements of the outermost object
+     * or array are read right away, nested objects and arrays are checked for balanced brackets and the
+     * maximum depth and parsed when they are first accessed, so only the parts of a document that are used
+     * are built.
+     *
+     * Syntax errors within nested objects and arrays are reported when they are accessed, their locations
+     * are relative to the object or array. Accessing a lazily read value modifies it, so it must not be
+     * shared between threads without synchronization.
+     */
+    public JsonConfigBuilder setLazyParsing() {
+        this.lazyParsing = true;
+        return this;
+    }
+
+    /**
+     * Deserialized texts are parsed completely.
+     */
+    public JsonConfigBuilder setNoLazyParsing() {
+        this.lazyParsing = false;
+        return this;
+    }
+
+    /**
+     * Deserialized documents are stored in a flat array instead of one object per value, with strings and numbers
+     * held in pools, and member names stored once per document. This takes a fraction of the memory of the usual
+     * object model, while values are created each time they are accessed.
+     *
+     * Objects and arrays of compact documents cannot be modified. Takes precedence over lazy parsing.
+     */
+    public JsonConfigBuilder setCompactDocuments() {
+        this.compactDocuments = true;
+        return this;
+    }
+
+    /**
+     * Deserialized documents consist of modifiable {@link JsonObject}s and {@link JsonArray}s.
+     */
+    public JsonConfigBuilder setNoCompactDocuments() {
+        this.compactDocuments = false;
+        return this;
+    }
+
+    /**
+     * UTF-8 encoded files, byte arrays and buffers of at least the given number of bytes, whose value is an array,
+     * are deserialized on several threads. The array is cut into chunks of elements by following brackets and
+     * strings only, the chunks are parsed in the common {@link java.util.concurrent.ForkJoinPool} and their elements
+     * joined in order. The resulting object model is the same as when parsing sequentially, texts containing errors
+     * are parsed again sequentially to report the first error. Files are memory mapped.
+     *
+     * Does not apply to compact documents.
+     */
+    public JsonConfigBuilder setParallelParsing( int minimumSize ) {
+        if ( minimumSize < 1 )
+            throw new IllegalArgumentException( "Parallel parsing size too small (" + minimumSize + ")" );
+        this.parallelParsingSize = minimumSize;
+        return this;
+    }
+
+    /**
+     * Texts are always parsed on the calling thread.
+     */
+    public JsonConfigBuilder setNoParallelParsing() {
+        this.parallelParsingSize = 0;
+        return this;
+    }
+
+    private static int checkBufferSize( int size ) {
+        if ( size < 16 )
+            throw new IllegalArgumentException( "Buffer size too small (" + size + ")" );
+        return size;
+    }
+
     public JsonConfig build() {
-        return new JsonConfig(layout, strict, useFloatingPoint, charset, maximumDepth);
+        return new JsonConfig(layout, strict, useFloatingPoint, charset, maximumDepth,
+                inputBufferSize, Math.max( inputBufferSize, maximumInputBufferSize ), outputBufferSize, memoryMappedFiles,
+                symbolTableSize, shapeTableSize, inlineArrayLength, lazyParsing, compactDocuments,
+                parallelParsingSize);
     }
 
 }
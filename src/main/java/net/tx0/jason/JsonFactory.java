@@ -13,6 +13,7 @@ import java.io.Writer;
  * Every factory method has a static counterpart in {@link Json} which utilize the default configuration.
  *
  * The factory instance is thread-safe, the created reader and writer instances are not thread-safe.
+ * Readers created by one factory share the symbol table of its configuration, see {@link JsonConfigBuilder#setSymbolTable(int)}.
  */
 public final class JsonFactory {
 
@@ -40,6 +41,48 @@ public final class JsonFactory {
         return Json.createReader( config, inputStream );
     }
 
+    /**
+     * Creates a {@link JsonReader} to read any number of json texts following each other from the supplied {@link Reader},
+     * see {@link Json#createMultiDocumentReader(JsonConfig, Reader)}.
+     *
+     * The caller is still responsible to close the supplied reader.
+     */
+    public JsonReader createMultiDocumentReader( Reader reader ) {
+        return Json.createMultiDocumentReader( config, reader );
+    }
+
+    /**
+     * Creates a {@link JsonReader} to read any number of json texts following each other from the supplied {@link InputStream},
+     * see {@link Json#createMultiDocumentReader(JsonConfig, Reader)}.
+     *
+     * The caller is still responsible to close the input stream.
+     */
+    public JsonReader createMultiDocumentReader( InputStream inputStream ) {
+        return Json.createMultiDocumentReader( config, inputStream );
+    }
+
+    /**
+     * Creates a {@link JsonFeedReader} to read UTF-8 encoded bytes fed as they arrive, holding one json text or,
+     * if requested, any number of texts.
+     */
+    public JsonFeedReader createFeedReader( boolean multipleDocuments ) {
+        return Json.createFeedReader( config, multipleDocuments );
+    }
+
+    /**
+     * Creates a {@link JsonReader} to read the supplied characters in place.
+     */
+    public JsonReader createReader( CharSequence text ) {
+        return Json.createReader( config, text );
+    }
+
+    /**
+     * Creates a {@link JsonReader} to read the supplied characters in place.
+     */
+    public JsonReader createReader( char[] text, int offset, int length ) {
+        return Json.createReader( config, text, offset, length );
+    }
+
     /**
      * Creates a {@link JsonWriter} to write to the supplied {@link OutputStream}.
      *
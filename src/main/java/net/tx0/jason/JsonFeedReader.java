@@ -0,0 +1,200 @@
+package net.tx0.jason;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A reader of UTF-8 encoded input handed over in chunks as it arrives, for example from a non-blocking channel.
+ *
+ * Instead of waiting for input, {@link #next()} returns {@link JsonToken#NEED_INPUT} if the bytes fed so far end
+ * before the next token does. Once more input has been fed, the token is scanned again from its start, the bytes of an
+ * incomplete token are kept until then. Strings are only scanned again after input holding a quote has been fed, so
+ * long strings arriving in many chunks are not scanned over and over. Skipped values are not scanned again at all, a
+ * skip continues where it stopped and the bytes skipped are discarded as input is fed.
+ *
+ * A number is only returned once the byte following it has been fed. Reading a single text, its last token is only
+ * returned once the input has been ended by {@link #end()}, as nothing but whitespace may follow.
+ *
+ * {@link #skipValue()} and {@link #skipChildren()} take effect as soon as the input allows, in the order requested,
+ * and until they have {@link #next()} returns {@link JsonToken#NEED_INPUT}. Errors found while skipping are thrown by
+ * the call that completes the skip.
+ *
+ * Instances are not thread-safe.
+ */
+public final class JsonFeedReader implements JsonReader {
+
+	private static final byte SKIP_VALUE = 1;
+	private static final byte SKIP_CHILDREN = 2;
+
+	private final JsonUtf8Scanner scanner;
+	private final JsonReaderImpl reader;
+
+	// the skip operations waiting for input, in the order requested
+	private byte[] skips = new byte[4];
+	private int skipStart, skipCount;
+
+	JsonFeedReader( JsonConfig config, boolean documents ) {
+		this.scanner = new JsonUtf8Scanner( config );
+		this.reader = new JsonReaderImpl( config, scanner, documents );
+	}
+
+	/**
+	 * Appends bytes to the input.
+	 */
+	public void feed( byte[] bytes, int offset, int length ) {
+		scanner.feed( ByteBuffer.wrap( bytes, offset, length ) );
+	}
+
+	/**
+	 * Appends bytes to the input.
+	 */
+	public void feed( byte[] bytes ) {
+		feed( bytes, 0, bytes.length );
+	}
+
+	/**
+	 * Appends the bytes between the position and the limit of the buffer to the input, and moves its position to the limit.
+	 */
+	public void feed( ByteBuffer bytes ) {
+		scanner.feed( bytes );
+	}
+
+	/**
+	 * Ends the input, no more bytes may be fed.
+	 */
+	public void end() {
+		scanner.end();
+	}
+
+	/**
+	 * Whether more tokens may follow, true as long as that is not known from the input fed so far.
+	 */
+	@Override
+	public boolean hasNext() {
+
+		if ( !skip() || !scanner.ready() )
+			return true;
+
+		save();
+		try {
+			return reader.hasNext();
+		} catch ( JsonUtf8Scanner.Underflow e ) {
+			restore();
+			return true;
+		}
+	}
+
+	@Override
+	public JsonToken next() {
+
+		if ( !skip() || !scanner.ready() )
+			return JsonToken.NEED_INPUT;
+
+		save();
+		try {
+			return reader.next();
+		} catch ( JsonUtf8Scanner.Underflow e ) {
+			restore();
+			return JsonToken.NEED_INPUT;
+		}
+	}
+
+	@Override
+	public void skipValue() {
+		skip( SKIP_VALUE );
+	}
+
+	@Override
+	public void skipChildren() {
+		skip( SKIP_CHILDREN );
+	}
+
+	private void skip( byte operation ) {
+		if ( skipCount == skips.length ) {
+			byte[] grown = new byte[skipCount * 2];
+			for ( int i = 0; i < skipCount; i++ )
+				grown[i] = skips[( skipStart + i ) % skipCount];
+			skips = grown;
+			skipStart = 0;
+		}
+		skips[( skipStart + skipCount++ ) % skips.length] = operation;
+		skip();
+	}
+
+	/**
+	 * Completes the pending skip operations as far as the input allows.
+	 *
+	 * @return false if a skip operation still needs more input
+	 */
+	private boolean skip() {
+
+		for ( ; skipCount > 0; skipStart = ( skipStart + 1 ) % skips.length, skipCount-- ) {
+
+			if ( !scanner.ready() )
+				return false;
+
+			save();
+			try {
+				if ( skips[skipStart] == SKIP_VALUE )
+					reader.skipValue();
+				else
+					reader.skipChildren();
+			} catch ( JsonUtf8Scanner.Underflow e ) {
+				restore();
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private void save() {
+		reader.save();
+		scanner.save();
+	}
+
+	private void restore() {
+		reader.restore();
+		scanner.restore();
+	}
+
+	@Override
+	public String getMemberName() {
+		return reader.getMemberName();
+	}
+
+	@Override
+	public String getStringValue() {
+		return reader.getStringValue();
+	}
+
+	@Override
+	public boolean getBooleanValue() {
+		return reader.getBooleanValue();
+	}
+
+	@Override
+	public Number getNumberValue() {
+		return reader.getNumberValue();
+	}
+
+	@Override
+	public boolean isIntegral() {
+		return reader.isIntegral();
+	}
+
+	@Override
+	public long getLongValue() {
+		return reader.getLongValue();
+	}
+
+	@Override
+	public int getIntValue() {
+		return reader.getIntValue();
+	}
+
+	@Override
+	public double getDoubleValue() {
+		return reader.getDoubleValue();
+	}
+
+}
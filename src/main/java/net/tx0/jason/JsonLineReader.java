@@ -0,0 +1,270 @@
+package net.tx0.jason;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads JSON Lines, also known as newline delimited json: UTF-8 encoded text holding one json value per line.
+ *
+ * The input is read in chunks of whole lines and every line is parsed right from its chunk. Parsing sequentially, a
+ * chunk holds the lines complete after a read of the input, so lines are returned as soon as they arrive. Parsing in
+ * parallel, chunks are filled up to about the maximum input buffer size if input buffers are adaptive, and up to
+ * 64 KiB otherwise. Lines holding nothing but whitespace are skipped. Errors in a line are reported as syntax errors
+ * with the line of the input and the column within the line, their position is the character offset within the line.
+ *
+ * In parallel mode a number of chunks is read ahead and parsed by tasks in the common {@link ForkJoinPool}, so at most
+ * that many chunks and their values are held at a time. Values are returned in the order of the input, or chunk by
+ * chunk as soon as a chunk has been parsed.
+ *
+ * Instances are not thread-safe. Closing the reader closes the input only if the reader opened it.
+ */
+public final class JsonLineReader implements Iterator<JsonValue>, Closeable {
+
+	// the size of chunks parsed in parallel, unless input buffers are adaptive
+	private static final int CHUNK_SIZE = 1 << 16;
+
+	private final JsonConfig config;
+	private final InputStream input;
+	private final boolean owned;
+	// the number of chunks parsed ahead, zero if chunks are parsed by the calling thread
+	private final int parallelism;
+	private final boolean ordered;
+	// the size of the blocks lines are read into
+	private final int blockSize;
+
+	// the partial line following the last chunk
+	private byte[] rest = new byte[0];
+	// the block of the last chunk, reused if chunks are parsed by the calling thread
+	private byte[] buffer;
+	private boolean eof;
+	// the number of the first line of the next chunk
+	private long line = 1;
+
+	// chunks being parsed in the order they were read, or the chunks parsed in the order they were finished
+	private final Queue<Chunk> running;
+	private int inFlight;
+
+	private List<JsonValue> values = Collections.emptyList();
+	private int index;
+
+	JsonLineReader( JsonConfig config, InputStream input, boolean owned, int parallelism, boolean ordered ) {
+		if ( parallelism < 0 )
+			throw new IllegalArgumentException( "Negative parallelism (" + parallelism + ")" );
+		this.config = config;
+		this.input = input;
+		this.owned = owned;
+		this.parallelism = parallelism;
+		this.ordered = ordered || parallelism == 0;
+		this.blockSize = parallelism == 0 || config.isAdaptiveInputBuffers() ? config.getMaximumInputBufferSize() : CHUNK_SIZE;
+		this.running = this.ordered ? new ArrayDeque<>() : new LinkedBlockingQueue<>();
+	}
+
+	@Override
+	public boolean hasNext() {
+		while ( index == values.size() ) {
+			List<JsonValue> next = parseNext();
+			if ( next == null )
+				return false;
+			values = next;
+			index = 0;
+		}
+		return true;
+	}
+
+	@Override
+	public JsonValue next() {
+		if ( !hasNext() )
+			throw new NoSuchElementException();
+		return values.get( index++ );
+	}
+
+	/**
+	 * A sequential stream of the remaining values, closing the stream closes the reader.
+	 */
+	public Stream<JsonValue> stream() {
+		Spliterator<JsonValue> spliterator = Spliterators.spliteratorUnknownSize( this, ordered ? Spliterator.ORDERED : 0 );
+		return StreamSupport.stream( spliterator, false ).onClose( ()-> {
+			try {
+				close();
+			} catch ( IOException e ) {
+				throw JsonException.wrap( e );
+			}
+		} );
+	}
+
+	@Override
+	public void close() throws IOException {
+		eof = true;
+		running.clear();
+		inFlight = 0;
+		values = Collections.emptyList();
+		if ( owned )
+			input.close();
+	}
+
+	/**
+	 * The values of the next chunk, null at the end of the input.
+	 */
+	private List<JsonValue> parseNext() {
+
+		Chunk chunk;
+
+		try {
+
+			if ( parallelism == 0 ) {
+				chunk = read();
+				return chunk == null ? null : chunk.invoke();
+			}
+
+			for ( ; inFlight < parallelism && ( chunk = read() ) != null; inFlight++ ) {
+				if ( ordered )
+					running.add( chunk );
+				ForkJoinPool.commonPool().execute( chunk );
+			}
+
+			if ( inFlight == 0 )
+				return null;
+			chunk = ordered ? running.poll() : ( (BlockingQueue<Chunk>) running ).take();
+			inFlight--;
+
+			return chunk.join();
+
+		} catch ( IOException e ) {
+			throw JsonException.wrap( e );
+		} catch ( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+			throw new JsonException( "Interrupted while waiting for lines", e );
+		}
+	}
+
+	/**
+	 * Reads the lines up to the last line break in the next read of the input or, in parallel mode, in the next block
+	 * of input. At the end of the input, reads the remaining input.
+	 *
+	 * @return the chunk of lines, null at the end of the input
+	 */
+	private Chunk read() throws IOException {
+
+		byte[] block;
+		int length, capacity, end, low, n;
+		long first;
+
+		if ( eof )
+			return null;
+
+		length = rest.length;
+		capacity = Math.max( blockSize, length * 2 );
+
+		// a chunk parsed by the calling thread is done with before the next one is read
+		if ( parallelism == 0 && buffer != null && buffer.length >= capacity ) {
+			block = buffer;
+			System.arraycopy( rest, 0, block, 0, length );
+		} else {
+			block = Arrays.copyOf( rest, capacity );
+		}
+
+		do {
+			n = input.read( block, length, block.length - length );
+			if ( n < 0 ) {
+				eof = true;
+				end = length;
+				break;
+			}
+			length += n;
+			if ( parallelism == 0 || length == block.length ) {
+				// reading sequentially, the bytes read before hold no line break
+				low = parallelism == 0 ? length - n : 0;
+				end = length;
+				while ( end > low && block[end - 1] != '\n' )
+					end--;
+				if ( end > low )
+					break;
+				// a line longer than the block
+				if ( length == block.length )
+					block = Arrays.copyOf( block, block.length * 2 );
+			}
+		} while ( true );
+
+		if ( parallelism == 0 )
+			buffer = block;
+
+		rest = Arrays.copyOfRange( block, end, length );
+		if ( end == 0 )
+			return null;
+
+		first = line;
+		for ( int i = 0; i < end; i++ ) {
+			if ( block[i] == '\n' )
+				line++;
+		}
+
+		return new Chunk( block, end, first );
+	}
+
+	private static boolean blank( byte[] bytes, int start, int end ) {
+		for ( int i = start; i < end; i++ ) {
+			byte c = bytes[i];
+			if ( c != ' ' && c != '\t' && c != '\r' )
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Parses the lines of a chunk.
+	 */
+	private final class Chunk extends RecursiveTask<List<JsonValue>> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final byte[] bytes;
+		private final int length;
+		private final long first;
+
+		Chunk( byte[] bytes, int length, long first ) {
+			this.bytes = bytes;
+			this.length = length;
+			this.first = first;
+		}
+
+		@Override
+		protected List<JsonValue> compute() {
+
+			List<JsonValue> values = new ArrayList<>();
+			JsonUtf8Scanner scanner = new JsonUtf8Scanner( config, ByteBuffer.wrap( bytes, 0, length ) );
+			long number = first;
+
+			try {
+				for ( int start = 0, end; start < length; start = end + 1, number++ ) {
+					end = start;
+					while ( end < length && bytes[end] != '\n' )
+						end++;
+					if ( blank( bytes, start, end ) )
+						continue;
+					scanner.reset( start, end );
+					values.add( JsonParser.parseDocument( config, new JsonReaderImpl( config, scanner ) ) );
+				}
+			} catch ( JsonSyntaxException e ) {
+				throw e.inLine( number );
+			} catch ( JsonException e ) {
+				throw JsonSyntaxException.inLine( e, scanner.location(), number );
+			} finally {
+				if ( !ordered )
+					running.add( this );
+			}
+
+			return values;
+		}
+
+	}
+
+}
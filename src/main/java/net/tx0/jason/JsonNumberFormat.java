@@ -0,0 +1,283 @@
+package net.tx0.jason;
+
+import java.math.BigInteger;
+
+/**
+ * Formats numbers into character arrays without creating intermediate strings.
+ *
+ * Doubles are written with the shortest decimal that reads back as the same double, choosing the one closest
+ * to the exact value if there are several, using the Schubfach algorithm by Raffaello Giulietti.
+ * The layout is the one of {@link Double#toString(double)}: plain notation for magnitudes from 10<sup>-3</sup>
+ * to below 10<sup>7</sup>, computerized scientific notation otherwise.
+ */
+final class JsonNumberFormat {
+
+    /**
+     * Maximum number of characters written for a long or a double.
+     */
+    static final int MAXIMUM_LENGTH = 24;
+
+    // precision and exponent range of doubles
+    private static final int P = 53;
+    private static final int Q_MIN = -1074;
+    private static final long C_MIN = 1L << P - 1;
+    private static final int BQ_MASK = 0x7ff;
+    private static final long T_MASK = ( 1L << P - 1 ) - 1;
+    private static final long C_TINY = 3;
+
+    // range of decimal exponents the table of powers of ten covers
+    private static final int K_MIN = -324;
+    private static final int K_MAX = 292;
+
+    private static final long MASK_63 = ( 1L << 63 ) - 1;
+
+    // 10^-k = beta 2^r with 2^125 <= beta < 2^126, g = floor(beta) + 1 split into g1 2^63 + g0
+    private static final long[] G = new long[2 * ( K_MAX - K_MIN + 1 )];
+
+    static {
+        BigInteger beta, p;
+        for ( int k = K_MIN; k <= K_MAX; k++ ) {
+            if ( k <= 0 ) {
+                p = BigInteger.TEN.pow(-k);
+                int r = p.bitLength() - 126;
+                beta = r >= 0 ? p.shiftRight(r) : p.shiftLeft(-r);
+            } else {
+                p = BigInteger.TEN.pow(k);
+                beta = BigInteger.ONE.shiftLeft(125 + p.bitLength()).divide(p);
+                if ( beta.bitLength() > 126 )
+                    beta = beta.shiftRight(1);
+            }
+            beta = beta.add(BigInteger.ONE);
+            G[k - K_MIN << 1] = beta.shiftRight(63).longValue();
+            G[( k - K_MIN << 1 ) + 1] = beta.longValue() & MASK_63;
+        }
+    }
+
+    private JsonNumberFormat() {
+    }
+
+    /**
+     * Writes the decimal digits of the value.
+     *
+     * @return the position following the last character written
+     */
+    static int format( long value, char[] out, int pos ) {
+
+        int start, end;
+        char c;
+
+        if ( value == Long.MIN_VALUE ) {
+            "-9223372036854775808".getChars(0, 20, out, pos);
+            return pos + 20;
+        }
+
+        if ( value < 0 ) {
+            out[pos++] = '-';
+            value = -value;
+        }
+
+        // digits are produced backwards and reversed in place
+        start = pos;
+        do {
+            out[pos++] = (char) ( '0' + value % 10 );
+            value /= 10;
+        } while ( value != 0 );
+
+        for ( end = pos - 1; start < end; start++, end-- ) {
+            c = out[start];
+            out[start] = out[end];
+            out[end] = c;
+        }
+
+        return pos;
+    }
+
+    /**
+     * Writes the shortest decimal reading back as the value, in the notation of {@link Double#toString(double)}.
+     *
+     * @return the position following the last character written
+     */
+    static int format( double value, char[] out, int pos ) {
+
+        long bits, t, c;
+        int bq, mq;
+
+        bits = Double.doubleToRawLongBits(value);
+        t = bits & T_MASK;
+        bq = (int) ( bits >>> P - 1 ) & BQ_MASK;
+
+        if ( bq == BQ_MASK )
+            return append(t != 0 ? "NaN" : bits > 0 ? "Infinity" : "-Infinity", out, pos);
+
+        if ( bits < 0 )
+            out[pos++] = '-';
+
+        if ( bq != 0 ) {
+            // normal value
+            mq = -Q_MIN + 1 - bq;
+            c = C_MIN | t;
+            // integers fit into the significand
+            if ( 0 < mq && mq < P ) {
+                long f = c >> mq;
+                if ( f << mq == c )
+                    return digits(f, 0, out, pos);
+            }
+            return decimal(-mq, c, 0, out, pos);
+        }
+
+        if ( t != 0 ) {
+            // subnormal value
+            return t < C_TINY ? decimal(Q_MIN, 10 * t, -1, out, pos) : decimal(Q_MIN, t, 0, out, pos);
+        }
+
+        return append("0.0", out, pos);
+    }
+
+    /**
+     * Finds the shortest decimal in the rounding interval of c 2^q.
+     */
+    private static int decimal( int q, long c, int dk, char[] out, int pos ) {
+
+        int odd = (int) c & 0x1;
+        long cb = c << 2;
+        long cbr = cb + 2;
+        long cbl;
+        int k;
+
+        if ( c != C_MIN || q == Q_MIN ) {
+            cbl = cb - 2;
+            k = flog10pow2(q);
+        } else {
+            // the interval is asymmetric at powers of two
+            cbl = cb - 1;
+            k = flog10threeQuartersPow2(q);
+        }
+        int h = q + flog2pow10(-k) + 2;
+
+        long g1 = G[k - K_MIN << 1];
+        long g0 = G[( k - K_MIN << 1 ) + 1];
+
+        long vb = rop(g1, g0, cb << h);
+        long vbl = rop(g1, g0, cbl << h);
+        long vbr = rop(g1, g0, cbr << h);
+
+        long s = vb >> 2;
+        if ( s >= 100 ) {
+            // try one digit less first
+            long sp10 = 10 * multiplyHigh(s, 115_292_150_460_684_698L << 4);
+            long tp10 = sp10 + 10;
+            boolean upin = vbl + odd <= sp10 << 2;
+            boolean wpin = ( tp10 << 2 ) + odd <= vbr;
+            if ( upin != wpin )
+                return digits(upin ? sp10 : tp10, k, out, pos);
+        }
+
+        long t = s + 1;
+        boolean uin = vbl + odd <= s << 2;
+        boolean win = ( t << 2 ) + odd <= vbr;
+        if ( uin != win )
+            return digits(uin ? s : t, k + dk, out, pos);
+
+        long cmp = vb - ( s + t << 1 );
+        return digits(cmp < 0 || cmp == 0 && ( s & 0x1 ) == 0 ? s : t, k + dk, out, pos);
+    }
+
+    /**
+     * Writes f 10^e.
+     */
+    private static int digits( long f, int e, char[] out, int pos ) {
+
+        int len, start, point, i;
+
+        // the digits of f without trailing zeros
+        while ( f % 10 == 0 && f != 0 ) {
+            f /= 10;
+            e++;
+        }
+        start = pos;
+        pos = format(f, out, pos);
+        len = pos - start;
+
+        // the value is 0.d 10^point
+        point = e + len;
+
+        if ( 0 < point && point <= 7 ) {
+            if ( point >= len ) {
+                for ( i = len; i < point; i++ )
+                    out[pos++] = '0';
+                out[pos++] = '.';
+                out[pos++] = '0';
+            } else {
+                System.arraycopy(out, start + point, out, start + point + 1, len - point);
+                out[start + point] = '.';
+                pos++;
+            }
+        } else if ( -3 < point && point <= 0 ) {
+            System.arraycopy(out, start, out, start + 2 - point, len);
+            out[start] = '0';
+            out[start + 1] = '.';
+            for ( i = 0; i < -point; i++ )
+                out[start + 2 + i] = '0';
+            pos += 2 - point;
+        } else {
+            System.arraycopy(out, start + 1, out, start + 2, len - 1);
+            out[start + 1] = '.';
+            pos++;
+            if ( len == 1 )
+                out[pos++] = '0';
+            out[pos++] = 'E';
+            pos = format(point - 1, out, pos);
+        }
+
+        return pos;
+    }
+
+    private static int append( String s, char[] out, int pos ) {
+        s.getChars(0, s.length(), out, pos);
+        return pos + s.length();
+    }
+
+    /**
+     * Computes the rounded product of g and cp shifted right by 127, keeping a sticky bit.
+     */
+    private static long rop( long g1, long g0, long cp ) {
+        long x1 = multiplyHigh(g0, cp);
+        long y0 = g1 * cp;
+        long y1 = multiplyHigh(g1, cp);
+        long z = ( y0 >>> 1 ) + x1;
+        long vbp = y1 + ( z >>> 63 );
+        return vbp | ( z & MASK_63 ) + MASK_63 >>> 63;
+    }
+
+    // floor(log10(2^e))
+    private static int flog10pow2( int e ) {
+        return (int) ( e * 661_971_961_083L >> 41 );
+    }
+
+    // floor(log10(3/4 2^e))
+    private static int flog10threeQuartersPow2( int e ) {
+        return (int) ( e * 661_971_961_083L + -274_743_187_321L >> 41 );
+    }
+
+    // floor(log2(10^e))
+    private static int flog2pow10( int e ) {
+        return (int) ( e * 913_124_641_741L >> 38 );
+    }
+
+    /**
+     * The high 64 bits of the 128 bit product, Math.multiplyHigh is not available on all supported platforms.
+     */
+    private static long multiplyHigh( long x, long y ) {
+        long x1 = x >> 32;
+        long x2 = x & 0xffffffffL;
+        long y1 = y >> 32;
+        long y2 = y & 0xffffffffL;
+        long z2 = x2 * y2;
+        long t = x1 * y2 + ( z2 >>> 32 );
+        long z1 = t & 0xffffffffL;
+        long z0 = t >> 32;
+        z1 += x2 * y1;
+        return x1 * y1 + z0 + ( z1 >> 32 );
+    }
+
+}
@@ -37,16 +37,33 @@ public class JsonObject extends JsonValue implements Map<String, JsonValue> {
         return object;
     }
 
-    private final Map<String, JsonValue> map;
+    private Map<String, JsonValue> map;
+    // the source text of an object read lazily, null once parsed
+    private JsonSpan span;
 
     public JsonObject() {
-        this(new HashMap<String, JsonValue>());
+        this(new JsonObjectMap());
     }
 
     JsonObject( Map<String, JsonValue> map ) {
         this.map = map;
     }
 
+    JsonObject( JsonSpan span ) {
+        this.span = span;
+    }
+
+    /**
+     * The members, parsed on first access if the object has been read lazily.
+     */
+    private Map<String, JsonValue> map() {
+        if ( span != null ) {
+            map = JsonParser.parseLazyMembers(span);
+            span = null;
+        }
+        return map;
+    }
+
     /**
      * Renames a member if it exists.
      */
@@ -61,7 +78,7 @@ public class JsonObject extends JsonValue implements Map<String, JsonValue> {
     @Override
     void write( JsonWriter writer ) {
         writer.writeStartObject();
-        for ( Entry<String, JsonValue> entry : map.entrySet() ) {
+        for ( Entry<String, JsonValue> entry : map().entrySet() ) {
             writer.writeMember(entry.getKey());
             JsonValue value = entry.getValue();
             if ( value == null ) {
@@ -152,38 +169,38 @@ public class JsonObject extends JsonValue implements Map<String, JsonValue> {
     }
 
     public JsonValueType getTypeOf( Object memberName ) {
-        JsonValue value = map.get(memberName);
+        JsonValue value = map().get(memberName);
         return value != null ? value.getType() : null;
     }
 
     @Override
     public void clear() {
-        map.clear();
+        map().clear();
     }
 
     @Override
     public boolean containsKey( Object key ) {
-        return map.containsKey(key);
+        return map().containsKey(key);
     }
 
     @Override
     public boolean containsValue( Object value ) {
-        return map.containsValue(value);
+        return map().containsValue(value);
     }
 
     @Override
     public Set<Entry<String, JsonValue>> entrySet() {
-        return map.entrySet();
+        return map().entrySet();
     }
 
     @Override
     public boolean equals( Object o ) {
-        return map.equals(o);
+        return map().equals(o);
     }
 
     @Override
     public JsonValue get( Object key ) {
-        return map.get(key);
+        return map().get(key);
     }
 
     @Override
@@ -193,42 +210,42 @@ public class JsonObject extends JsonValue implements Map<String, JsonValue> {
 
     @Override
     public int hashCode() {
-        return map.hashCode();
+        return map().hashCode();
     }
 
     @Override
     public boolean isEmpty() {
-        return map.isEmpty();
+        return map().isEmpty();
     }
 
     @Override
     public Set<String> keySet() {
-        return map.keySet();
+        return map().keySet();
     }
 
     @Override
     public JsonValue put( String key, JsonValue value ) {
-        return map.put(key, value);
+        return map().put(key, value);
     }
 
     @Override
     public void putAll( Map<? extends String, ? extends JsonValue> m ) {
-        map.putAll(m);
+        map().putAll(m);
     }
 
     @Override
     public JsonValue remove( Object key ) {
-        return map.remove(key);
+        return map().remove(key);
     }
 
     @Override
     public int size() {
-        return map.size();
+        return map().size();
     }
 
     @Override
     public Collection<JsonValue> values() {
-        return map.values();
+        return map().values();
     }
 
     @Override
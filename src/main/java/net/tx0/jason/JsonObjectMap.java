@@ -0,0 +1,252 @@
+package net.tx0.jason;
+
+import java.util.*;
+
+/**
+ * The members of a {@link JsonObject}, in the order they were added.
+ *
+ * Names and values are kept in two arrays. Small objects are searched linearly, larger ones through an open
+ * addressing table of indices into the arrays, which is rebuilt when members are removed.
+ *
+ * Parsed objects may share their names and table with all objects of the same shape, see
+ * {@link JsonConfigBuilder#setShapeTable(int)}. Both are copied before members are added or removed.
+ */
+final class JsonObjectMap extends AbstractMap<String, JsonValue> {
+
+    // maps up to this size have no table
+    private static final int LINEAR = 8;
+
+    private String[] keys;
+    private JsonValue[] values;
+    private int size;
+    // index + 1 of the member whose name hashes to the slot, zero for empty slots
+    private int[] table;
+    // whether names and table belong to a shape
+    private boolean shared;
+    private int modifications;
+
+    JsonObjectMap() {
+        this(4);
+    }
+
+    JsonObjectMap( int capacity ) {
+        keys = new String[capacity];
+        values = new JsonValue[capacity];
+    }
+
+    /**
+     * Releases the capacity beyond the current members, once no more members are expected.
+     */
+    void trim() {
+        if ( size < keys.length ) {
+            keys = Arrays.copyOf(keys, size);
+            values = Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * Releases the capacity beyond the current members and takes names and table from the shape table.
+     */
+    void trim( JsonShapeTable shapes ) {
+        trim();
+        if ( shapes != null && size > 0 ) {
+            JsonShapeTable.Shape shape = shapes.get(keys, size);
+            keys = shape.keys;
+            table = shape.table;
+            shared = true;
+        }
+    }
+
+    /**
+     * Copies names and table shared with a shape, before the members change.
+     */
+    private void own() {
+        if ( shared ) {
+            keys = keys.clone();
+            if ( table != null )
+                table = table.clone();
+            shared = false;
+        }
+    }
+
+    private static int hash( Object key ) {
+        int h = key == null ? 0 : key.hashCode();
+        return h ^ ( h >>> 16 );
+    }
+
+    private int indexOf( Object key ) {
+
+        if ( key == null ) {
+            // null names are allowed as in a HashMap, they are searched linearly
+            for ( int i = 0; i < size; i++ ) {
+                if ( keys[i] == null )
+                    return i;
+            }
+            return -1;
+        }
+
+        if ( !( key instanceof String ) )
+            return -1;
+
+        if ( table == null ) {
+            for ( int i = 0; i < size; i++ ) {
+                if ( key.equals(keys[i]) )
+                    return i;
+            }
+            return -1;
+        }
+
+        int mask = table.length - 1;
+        for ( int slot = hash(key) & mask, i; ( i = table[slot] ) != 0; slot = ( slot + 1 ) & mask ) {
+            if ( key.equals(keys[i - 1]) )
+                return i - 1;
+        }
+        return -1;
+    }
+
+    private static void index( int[] table, String[] keys, int i ) {
+        int mask = table.length - 1, slot = hash(keys[i]) & mask;
+        while ( table[slot] != 0 )
+            slot = ( slot + 1 ) & mask;
+        table[slot] = i + 1;
+    }
+
+    /**
+     * The table for the first names of the array, at most half full, or null if they are searched linearly.
+     */
+    static int[] table( String[] keys, int size ) {
+        if ( size <= LINEAR )
+            return null;
+        int[] table = new int[Integer.highestOneBit(size * 4 - 1)];
+        for ( int i = 0; i < size; i++ )
+            index(table, keys, i);
+        return table;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey( Object key ) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public JsonValue get( Object key ) {
+        int i = indexOf(key);
+        return i < 0 ? null : values[i];
+    }
+
+    @Override
+    public JsonValue put( String key, JsonValue value ) {
+
+        JsonValue previous;
+        int i = indexOf(key);
+
+        if ( i >= 0 ) {
+            previous = values[i];
+            values[i] = value;
+            return previous;
+        }
+
+        own();
+        if ( size == keys.length ) {
+            keys = Arrays.copyOf(keys, Math.max(4, size * 2));
+            values = Arrays.copyOf(values, keys.length);
+        }
+        keys[size] = key;
+        values[size++] = value;
+        modifications++;
+
+        if ( table != null && size * 2 <= table.length )
+            index(table, keys, size - 1);
+        else if ( size > LINEAR )
+            table = table(keys, size);
+
+        return null;
+    }
+
+    @Override
+    public JsonValue remove( Object key ) {
+        int i = indexOf(key);
+        return i < 0 ? null : removeAt(i);
+    }
+
+    private JsonValue removeAt( int i ) {
+        JsonValue previous = values[i];
+        own();
+        System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+        System.arraycopy(values, i + 1, values, i, size - i - 1);
+        keys[--size] = null;
+        values[size] = null;
+        modifications++;
+        if ( table != null )
+            table = table(keys, size);
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        own();
+        Arrays.fill(keys, 0, size, null);
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+        table = null;
+        modifications++;
+    }
+
+    @Override
+    public Set<Entry<String, JsonValue>> entrySet() {
+        return new AbstractSet<Entry<String, JsonValue>>() {
+
+            @Override
+            public Iterator<Entry<String, JsonValue>> iterator() {
+                return new Iterator<Entry<String, JsonValue>>() {
+
+                    private int next, last = -1, expected = modifications;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < size;
+                    }
+
+                    @Override
+                    public Entry<String, JsonValue> next() {
+                        if ( expected != modifications )
+                            throw new ConcurrentModificationException();
+                        if ( next >= size )
+                            throw new NoSuchElementException();
+                        final int i = last = next++;
+                        return new SimpleEntry<String, JsonValue>(keys[i], values[i]) {
+                            @Override
+                            public JsonValue setValue( JsonValue value ) {
+                                values[i] = value;
+                                return super.setValue(value);
+                            }
+                        };
+                    }
+
+                    @Override
+                    public void remove() {
+                        if ( last < 0 )
+                            throw new IllegalStateException();
+                        if ( expected != modifications )
+                            throw new ConcurrentModificationException();
+                        removeAt(last);
+                        next = last;
+                        last = -1;
+                        expected = modifications;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+}
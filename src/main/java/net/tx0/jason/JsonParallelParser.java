@@ -0,0 +1,251 @@
+package net.tx0.jason;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Builds the object model of a large UTF-8 encoded text whose value is an array on several threads,
+ * see {@link JsonConfigBuilder#setParallelParsing(int)}.
+ *
+ * A first pass only follows brackets and strings to cut the array into chunks of whole elements, which are
+ * parsed by tasks in the common {@link ForkJoinPool} and joined in order. Texts that are not arrays are parsed
+ * sequentially, as are texts the first pass or a task finds errors in, so errors are reported exactly as usual.
+ */
+final class JsonParallelParser {
+
+	// size of the windows mapped from files in the first pass
+	private static final long WINDOW_SIZE = 1 << 30;
+
+	private static final int MINIMUM_CHUNK_SIZE = 1 << 16;
+	private static final int MAXIMUM_CHUNK_SIZE = 1 << 26;
+
+	private final JsonConfig config;
+	// the text is held by exactly one of them
+	private final ByteBuffer buffer;
+	private final FileChannel channel;
+	private final long size;
+
+	private JsonParallelParser( JsonConfig config, ByteBuffer buffer, FileChannel channel, long size ) {
+		this.config = config;
+		this.buffer = buffer;
+		this.channel = channel;
+		this.size = size;
+	}
+
+	/**
+	 * Whether texts of the given size are parsed in parallel.
+	 */
+	static boolean applies( JsonConfig config, long size ) {
+		return config.getParallelParsingSize() > 0 && size >= config.getParallelParsingSize()
+				&& !config.isCompactDocuments() && StandardCharsets.UTF_8.equals( config.getCharset() );
+	}
+
+	/**
+	 * Parses the bytes between the position and the limit of the buffer.
+	 */
+	static JsonValue parse( JsonConfig config, ByteBuffer buffer ) {
+		ByteBuffer text = buffer.slice();
+		try {
+			return new JsonParallelParser( config, text, null, text.remaining() ).parse();
+		} catch ( IOException e ) {
+			throw JsonException.wrap( e );
+		}
+	}
+
+	/**
+	 * Parses the file behind the channel.
+	 */
+	static JsonValue parse( JsonConfig config, FileChannel channel ) throws IOException {
+		return new JsonParallelParser( config, null, channel, channel.size() ).parse();
+	}
+
+	private JsonValue parse() throws IOException {
+
+		List<ForkJoinTask<List<JsonValue>>> tasks;
+		List<JsonValue> elements;
+		long[] chunks;
+
+		if ( !applies( config, size ) || !utf8() || ( chunks = split() ) == null )
+			return sequential();
+
+		tasks = new ArrayList<>();
+		for ( int i = 0; i + 1 < chunks.length; i++ )
+			tasks.add( new Chunk( chunks[i], chunks[i + 1] - 1 ) );
+
+		try {
+			ForkJoinTask.invokeAll( tasks );
+			elements = new ArrayList<>();
+			for ( ForkJoinTask<List<JsonValue>> task : tasks )
+				elements.addAll( task.join() );
+		} catch ( JsonException e ) {
+			// reports the first error as if the text was parsed sequentially
+			return sequential();
+		}
+
+		return new JsonArray( JsonPrimitiveList.of( elements ) );
+	}
+
+	private JsonValue sequential() throws IOException {
+
+		byte[] bytes;
+
+		if ( buffer == null ) {
+			channel.position( 0 );
+			return JsonParser.parseDocument( config, new JsonReaderImpl( config, JsonScanner.create( config, channel ) ) );
+		}
+
+		if ( utf8() )
+			return JsonParser.parseDocument( config, new JsonReaderImpl( config, new JsonUtf8Scanner( config, buffer.duplicate() ) ) );
+
+		bytes = new byte[ buffer.remaining() ];
+		buffer.duplicate().get( bytes );
+		return JsonParser.parseDocument( config, new JsonReaderImpl( config, JsonScanner.create( config, new ByteArrayInputStream( bytes ) ) ) );
+	}
+
+	private boolean utf8() throws IOException {
+		return StandardCharsets.UTF_8.equals( JsonScanner.detectCharset( window( 0, Math.min( size, 4 ) ),
+				config.getCharset() ) );
+	}
+
+	private ByteBuffer window( long start, long end ) throws IOException {
+		if ( buffer == null )
+			return channel.map( FileChannel.MapMode.READ_ONLY, start, end - start );
+		ByteBuffer window = buffer.duplicate();
+		window.limit( (int) end ).position( (int) start );
+		return window.slice();
+	}
+
+	private static boolean whitespace( int c ) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+	}
+
+	/**
+	 * Cuts the outermost array into chunks. Each chunk starts following the opening bracket or a comma, and ends at
+	 * a comma or the closing bracket, the last offset is the one following the closing bracket.
+	 *
+	 * @return the offsets the chunks start at, or null if the text is not an array that can be cut
+	 */
+	private long[] split() throws IOException {
+
+		long chunkSize = Math.max( MINIMUM_CHUNK_SIZE, Math.min( MAXIMUM_CHUNK_SIZE,
+				size / ( ForkJoinPool.getCommonPoolParallelism() * 4L ) ) );
+		long[] chunks = new long[16];
+		int count = 0, depth = 0, c;
+		boolean string = false, escape = false, blank = true;
+		long start = 0, p = 0;
+		ByteBuffer window;
+
+		for ( ; start < size; start += WINDOW_SIZE ) {
+
+			window = window( start, Math.min( size, start + WINDOW_SIZE ) );
+
+			for ( int i = 0, l = window.limit(); i < l; i++ ) {
+
+				c = window.get( i );
+				p = start + i;
+
+				if ( string ) {
+					if ( escape )
+						escape = false;
+					else if ( c == '\\' )
+						escape = true;
+					else if ( c == '"' )
+						string = false;
+					continue;
+				}
+
+				if ( depth == 0 ) {
+					if ( whitespace( c ) )
+						continue;
+					// anything else than an opening bracket starting the text or whitespace following the array
+					if ( c != '[' || count > 0 )
+						return null;
+					chunks[count++] = p + 1;
+					depth = 1;
+					continue;
+				}
+
+				switch ( c ) {
+					case '"':
+						string = true;
+						break;
+					case '[':
+					case '{':
+						depth++;
+						break;
+					case '}':
+						if ( depth == 1 )
+							return null;
+						depth--;
+						break;
+					case ']':
+						if ( --depth == 0 ) {
+							// an empty array
+							if ( blank && count == 1 )
+								return null;
+							if ( count == chunks.length )
+								chunks = Arrays.copyOf( chunks, count * 2 );
+							chunks[count++] = p + 1;
+						}
+						break;
+					case ',':
+						if ( depth == 1 && p + 1 - chunks[count - 1] >= chunkSize ) {
+							if ( count == chunks.length )
+								chunks = Arrays.copyOf( chunks, count * 2 );
+							chunks[count++] = p + 1;
+						}
+						break;
+				}
+
+				blank = blank && whitespace( c );
+			}
+		}
+
+		if ( depth != 0 || count < 2 )
+			return null;
+
+		return Arrays.copyOf( chunks, count );
+	}
+
+	/**
+	 * Parses the elements between two offsets, which are separated by commas.
+	 */
+	private final class Chunk extends RecursiveTask<List<JsonValue>> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final long start, end;
+
+		Chunk( long start, long end ) {
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected List<JsonValue> compute() {
+
+			ByteBuffer text;
+
+			try {
+				text = window( start, end );
+			} catch ( IOException e ) {
+				throw JsonException.wrap( e );
+			}
+
+			// one reader parses all elements of the chunk and the commas between them
+			return JsonParser.parseValue( JsonReaderImpl.elements( config, new JsonUtf8Scanner( config, text ) ),
+					JsonToken.BEGIN_ARRAY ).asArray();
+		}
+
+	}
+
+}
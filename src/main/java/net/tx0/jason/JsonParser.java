@@ -16,23 +16,38 @@ abstract class JsonParser {
 		if ( !reader.hasNext() )
 			throw new JsonException( "Premature end of file" );
 
-		JsonToken kind = reader.next();
-		switch ( kind ) {
-			case BEGIN_ARRAY:
-				value = parseArray( reader );
-				break;
-			case BEGIN_OBJECT:
-				value = parseObject( reader );
-				break;
-			default:
-				value = parseValue( reader, kind );
-				break;
-		}
+		value = parseValue( reader, reader.next() );
+
+		if ( reader instanceof JsonReaderImpl )
+			( (JsonReaderImpl) reader ).endDocument();
+
+		return value;
+	}
+
+	/**
+	 * Reads the value starting with the token just read.
+	 */
+	static JsonValue parseValue( JsonReader reader, JsonToken kind ) {
+		return parseValue( reader, new Members( reader instanceof JsonReaderImpl ? ( (JsonReaderImpl) reader ).shapes() : null ), kind );
+	}
+
+	/**
+	 * Reads one json text into a compact document if the configuration asks for it, into objects and arrays otherwise.
+	 */
+	static JsonValue parseDocument( JsonConfig config, JsonReader reader ) {
+
+		JsonValue value;
+
+		if ( !config.isCompactDocuments() )
+			return parseText( reader );
 
+		value = JsonTape.parse( reader );
+		if ( reader instanceof JsonReaderImpl )
+			( (JsonReaderImpl) reader ).endDocument();
 		return value;
 	}
 
-	private static JsonValue parseValue( JsonReader reader, JsonToken kind ) {
+	private static JsonValue parseValue( JsonReader reader, Members members, JsonToken kind ) {
 		switch ( kind ) {
 			case BOOLEAN:
 				return reader.getBooleanValue() ? JsonBoolean.TRUE : JsonBoolean.FALSE;
@@ -43,20 +58,18 @@ abstract class JsonParser {
 			case NULL:
 				return null;
 			case BEGIN_ARRAY:
-				return parseArray( reader );
+				return parseArray( reader, members );
 			case BEGIN_OBJECT:
-				return parseObject( reader );
+				return parseObject( reader, members );
 		}
 
 		throw new JsonException( "Unexpected token " + kind + " while parsing value" );
 	}
 
-	static JsonObject parseObject( JsonReader reader ) {
+	private static JsonObject parseObject( JsonReader reader, Members members ) {
 		JsonToken tag;
-		Map<String, JsonValue> members;
 		String key;
-		
-		members = new LinkedHashMap<String, JsonValue>();
+		int start = members.top;
 		
 		tag = reader.next();
 		
@@ -64,7 +77,7 @@ abstract class JsonParser {
 			
 			key = reader.getMemberName();
 			
-			members.put( key, parseValue( reader, reader.next() ) );
+			members.add( key, parseValue( reader, members, reader.next() ) );
 			
 			tag = reader.next();
 
@@ -74,21 +87,182 @@ abstract class JsonParser {
 			throw new JsonException( "Expected end of object" );
 		}
 
-		return new JsonObject( members );
+		return new JsonObject( members.pop( start ) );
 	}
 
-	static JsonArray parseArray( JsonReader reader ) {
+	private static JsonArray parseArray( JsonReader reader, Members members ) {
 		JsonToken tag;
-		List<JsonValue> elements = new ArrayList<>();
+		List<JsonValue> elements;
+		JsonPrimitiveList primitives = new JsonPrimitiveList();
 		
 		tag = reader.next();
+
+		// numbers or booleans are stored as primitives while they are all of one kind
+		while ( tag != JsonToken.END_ARRAY && primitives.append( reader, tag ) )
+			tag = reader.next();
+
+		if ( tag == JsonToken.END_ARRAY && !primitives.isEmpty() ) {
+			primitives.trim();
+			return new JsonArray( primitives );
+		}
+
+		elements = new ArrayList<>( primitives );
 		
 		while ( tag != JsonToken.END_ARRAY ) {
-			elements.add(parseValue(reader, tag));
+			elements.add(parseValue(reader, members, tag));
 			tag = reader.next();
 		}
 		
 		return new JsonArray( elements );
 	}
 
+	/**
+	 * Parses a text held in memory. The members or elements of the outermost object or array are read right away,
+	 * nested objects and arrays are only checked for balanced brackets and parsed when they are accessed.
+	 */
+	static JsonValue parseLazy( JsonConfig config, String text ) {
+
+		JsonSpan span = new JsonSpan( config, text, 0, text.length(), 0 );
+		JsonReaderImpl reader = span.reader();
+
+		if ( !reader.hasNext() )
+			throw new JsonException( "Premature end of file" );
+
+		JsonToken kind = reader.next();
+		switch ( kind ) {
+			case BEGIN_ARRAY:
+				return new JsonArray( parseLazyElements( reader, span ) );
+			case BEGIN_OBJECT:
+				return new JsonObject( parseLazyMembers( reader, span ) );
+			default:
+				return parseValue( reader, null, kind );
+		}
+	}
+
+	/**
+	 * Parses the members of an object not parsed before.
+	 */
+	static Map<String, JsonValue> parseLazyMembers( JsonSpan span ) {
+		JsonReaderImpl reader = span.reader();
+		if ( reader.next() != JsonToken.BEGIN_OBJECT )
+			throw new JsonException( "Expected object" );
+		return parseLazyMembers( reader, span );
+	}
+
+	/**
+	 * Parses the elements of an array not parsed before.
+	 */
+	static List<JsonValue> parseLazyElements( JsonSpan span ) {
+		JsonReaderImpl reader = span.reader();
+		if ( reader.next() != JsonToken.BEGIN_ARRAY )
+			throw new JsonException( "Expected array" );
+		return parseLazyElements( reader, span );
+	}
+
+	private static Map<String, JsonValue> parseLazyMembers( JsonReaderImpl reader, JsonSpan span ) {
+		JsonToken tag;
+		Members members;
+		String key;
+
+		members = new Members( reader.shapes() );
+
+		tag = reader.next();
+
+		while ( tag == JsonToken.MEMBER_NAME ) {
+			key = reader.getMemberName();
+			members.add( key, parseLazyValue( reader, span, reader.next() ) );
+			tag = reader.next();
+		}
+
+		if ( tag != JsonToken.END_OBJECT ) {
+			throw new JsonException( "Expected end of object" );
+		}
+
+		return members.pop( 0 );
+	}
+
+	private static List<JsonValue> parseLazyElements( JsonReaderImpl reader, JsonSpan span ) {
+		JsonToken tag;
+		List<JsonValue> elements;
+		JsonPrimitiveList primitives = new JsonPrimitiveList();
+
+		tag = reader.next();
+
+		while ( tag != JsonToken.END_ARRAY && primitives.append( reader, tag ) )
+			tag = reader.next();
+
+		if ( tag == JsonToken.END_ARRAY && !primitives.isEmpty() ) {
+			primitives.trim();
+			return primitives;
+		}
+
+		elements = new ArrayList<>( primitives );
+
+		while ( tag != JsonToken.END_ARRAY ) {
+			elements.add( parseLazyValue( reader, span, tag ) );
+			tag = reader.next();
+		}
+
+		return elements;
+	}
+
+	/**
+	 * Parses a scalar, objects and arrays are skipped and only their span is kept.
+	 */
+	private static JsonValue parseLazyValue( JsonReaderImpl reader, JsonSpan span, JsonToken kind ) {
+
+		int start;
+		JsonSpan child;
+
+		if ( kind != JsonToken.BEGIN_OBJECT && kind != JsonToken.BEGIN_ARRAY )
+			return parseValue( reader, null, kind );
+
+		start = span.start + (int) reader.position();
+		// the skipped content is not read before it is accessed, but its depth is checked right away
+		reader.skipChildrenWithinDepth();
+		child = new JsonSpan( span.config, span.text, start, span.start + (int) reader.position() + 1, reader.depth() );
+
+		return kind == JsonToken.BEGIN_OBJECT ? new JsonObject( child ) : new JsonArray( child );
+	}
+
+	/**
+	 * The names and values of the objects being parsed, those of a nested object above those of the enclosing ones,
+	 * so the map of an object is only allocated once its number of members is known.
+	 */
+	private static final class Members {
+
+		private final JsonShapeTable shapes;
+		private String[] keys = new String[0];
+		private JsonValue[] values = new JsonValue[0];
+		int top;
+
+		Members( JsonShapeTable shapes ) {
+			this.shapes = shapes;
+		}
+
+		void add( String key, JsonValue value ) {
+			if ( top == keys.length ) {
+				keys = Arrays.copyOf( keys, Math.max( 16, top * 2 ) );
+				values = Arrays.copyOf( values, keys.length );
+			}
+			keys[top] = key;
+			values[top++] = value;
+		}
+
+		/**
+		 * Moves the members from the given index up into a map of their size.
+		 */
+		JsonObjectMap pop( int start ) {
+			JsonObjectMap map = new JsonObjectMap( top - start );
+			for ( int i = start; i < top; i++ )
+				map.put( keys[i], values[i] );
+			Arrays.fill( keys, start, top, null );
+			Arrays.fill( values, start, top, null );
+			top = start;
+			map.trim( shapes );
+			return map;
+		}
+
+	}
+
 }
@@ -0,0 +1,370 @@
+package net.tx0.jason;
+
+import java.util.*;
+
+/**
+ * The elements of a {@link JsonArray} consisting of integers, doubles or booleans only, stored as primitives.
+ *
+ * Integers and the bits of doubles take one long each, booleans one bit. Elements are created each time they are
+ * accessed, the typed getters of {@link JsonArray} read the primitives right away. As numbers are only equal to
+ * themselves, elements are searched and compared by their primitives. Once an element of another kind or null is
+ * stored, all elements are moved into a list of values.
+ */
+final class JsonPrimitiveList extends AbstractList<JsonValue> implements RandomAccess {
+
+	private static final int LONG = 1;
+	private static final int DOUBLE = 2;
+	private static final int BOOLEAN = 3;
+
+	private static final long[] EMPTY = new long[0];
+
+	// the kind of all elements, zero while there are none
+	private int kind;
+	private long[] data = EMPTY;
+	private int size;
+	// the elements once they are of different kinds, null before
+	private List<JsonValue> values;
+
+	/**
+	 * The primitives of the values if they are all of one kind, otherwise the values.
+	 */
+	static List<JsonValue> of( List<JsonValue> values ) {
+		JsonPrimitiveList primitives = new JsonPrimitiveList();
+		for ( JsonValue value : values ) {
+			if ( !primitives.append( value ) )
+				return values;
+		}
+		if ( primitives.isEmpty() )
+			return values;
+		primitives.trim();
+		return primitives;
+	}
+
+	/**
+	 * Appends the number or boolean the reader is positioned on, returns false if it is of another kind.
+	 */
+	boolean append( JsonReader reader, JsonToken token ) {
+		Number number;
+		if ( values != null )
+			return false;
+		if ( token == JsonToken.BOOLEAN ) {
+			if ( !accepts( BOOLEAN ) )
+				return false;
+			insert( size, reader.getBooleanValue() ? 1 : 0 );
+			return true;
+		}
+		if ( token != JsonToken.NUMBER )
+			return false;
+		if ( reader instanceof JsonReaderImpl )
+			return append( (JsonReaderImpl) reader );
+		number = reader.getNumberValue();
+		if ( number instanceof Long && accepts( LONG ) )
+			insert( size, number.longValue() );
+		else if ( number instanceof Double && accepts( DOUBLE ) )
+			insert( size, Double.doubleToRawLongBits( number.doubleValue() ) );
+		else
+			return false;
+		return true;
+	}
+
+	/**
+	 * Appends the number the reader is positioned on without boxing it, big numbers are left to the list of values.
+	 */
+	private boolean append( JsonReaderImpl reader ) {
+		if ( reader.isLong() && accepts( LONG ) )
+			insert( size, reader.getLongValue() );
+		else if ( reader.isDouble() && accepts( DOUBLE ) )
+			insert( size, Double.doubleToRawLongBits( reader.getDoubleValue() ) );
+		else
+			return false;
+		return true;
+	}
+
+	private boolean append( JsonValue value ) {
+		int k = kind( value );
+		if ( k == 0 || !accepts( k ) )
+			return false;
+		insert( size, primitive( value ) );
+		return true;
+	}
+
+	/**
+	 * Releases the capacity beyond the current elements, once no more elements are expected.
+	 */
+	void trim() {
+		int words = words( size );
+		if ( values == null && words < data.length )
+			data = Arrays.copyOf( data, words );
+	}
+
+	private static int kind( JsonValue value ) {
+		Number number;
+		if ( value instanceof JsonBoolean )
+			return BOOLEAN;
+		if ( !( value instanceof JsonNumber ) )
+			return 0;
+		number = value.asNumber();
+		return number instanceof Long ? LONG : number instanceof Double ? DOUBLE : 0;
+	}
+
+	private long primitive( JsonValue value ) {
+		switch ( kind ) {
+			case LONG:
+				return value.asLong();
+			case DOUBLE:
+				return Double.doubleToRawLongBits( value.asDouble() );
+			default:
+				return value.asBoolean() ? 1 : 0;
+		}
+	}
+
+	private boolean accepts( int k ) {
+		if ( kind == 0 )
+			kind = k;
+		return kind == k;
+	}
+
+	private int words( int n ) {
+		return kind == BOOLEAN ? ( n + 63 ) >>> 6 : n;
+	}
+
+	private long load( int i ) {
+		return kind == BOOLEAN ? data[i >>> 6] >>> i & 1 : data[i];
+	}
+
+	private void store( int i, long primitive ) {
+		if ( kind != BOOLEAN )
+			data[i] = primitive;
+		else if ( primitive != 0 )
+			data[i >>> 6] |= 1L << i;
+		else
+			data[i >>> 6] &= ~( 1L << i );
+	}
+
+	private void insert( int index, long primitive ) {
+		int words = words( size + 1 );
+		if ( words > data.length )
+			data = Arrays.copyOf( data, Math.max( words, Math.max( 4, data.length * 2 ) ) );
+		if ( kind != BOOLEAN )
+			System.arraycopy( data, index, data, index + 1, size - index );
+		else
+			for ( int i = size; i > index; i-- )
+				store( i, load( i - 1 ) );
+		store( index, primitive );
+		size++;
+		modCount++;
+	}
+
+	/**
+	 * Moves the elements into a list of values, before a value of another kind is stored.
+	 */
+	private List<JsonValue> values() {
+		if ( values == null ) {
+			List<JsonValue> elements = new ArrayList<>( Math.max( 10, size + 1 ) );
+			for ( int i = 0; i < size; i++ )
+				elements.add( element( i ) );
+			values = elements;
+			data = EMPTY;
+		}
+		return values;
+	}
+
+	private JsonValue element( int i ) {
+		switch ( kind ) {
+			case LONG:
+				return JsonNumber.createNumber( data[i] );
+			case DOUBLE:
+				return JsonNumber.createNumber( Double.longBitsToDouble( data[i] ) );
+			default:
+				return load( i ) != 0 ? JsonBoolean.TRUE : JsonBoolean.FALSE;
+		}
+	}
+
+	private void check( int index, int length ) {
+		if ( index < 0 || index >= length )
+			throw new IndexOutOfBoundsException( "Index " + index + " out of bounds for length " + length );
+	}
+
+	long getLong( int index ) {
+		if ( values != null || kind == BOOLEAN )
+			return get( index ).asLong();
+		check( index, size );
+		return kind == LONG ? data[index] : (long) Double.longBitsToDouble( data[index] );
+	}
+
+	double getDouble( int index ) {
+		if ( values != null || kind == BOOLEAN )
+			return get( index ).asDouble();
+		check( index, size );
+		return kind == LONG ? data[index] : Double.longBitsToDouble( data[index] );
+	}
+
+	boolean getBoolean( int index ) {
+		if ( values != null || kind != BOOLEAN )
+			return get( index ).asBoolean();
+		check( index, size );
+		return load( index ) != 0;
+	}
+
+	void write( JsonWriter writer ) {
+		if ( values != null ) {
+			for ( JsonValue value : values ) {
+				if ( value == null )
+					writer.writeNull();
+				else
+					value.write( writer );
+			}
+			return;
+		}
+		for ( int i = 0; i < size; i++ ) {
+			switch ( kind ) {
+				case LONG:
+					writer.write( data[i] );
+					break;
+				case DOUBLE:
+					writer.write( Double.longBitsToDouble( data[i] ) );
+					break;
+				default:
+					writer.write( load( i ) != 0 );
+					break;
+			}
+		}
+	}
+
+	@Override
+	public JsonValue get( int index ) {
+		if ( values != null )
+			return values.get( index );
+		check( index, size );
+		return element( index );
+	}
+
+	@Override
+	public JsonValue set( int index, JsonValue element ) {
+		JsonValue previous;
+		if ( values == null && kind( element ) == kind ) {
+			previous = get( index );
+			store( index, primitive( element ) );
+			return previous;
+		}
+		return values().set( index, element );
+	}
+
+	@Override
+	public void add( int index, JsonValue element ) {
+		if ( values == null ) {
+			check( index, size + 1 );
+			int k = kind( element );
+			if ( k != 0 && accepts( k ) ) {
+				insert( index, primitive( element ) );
+				return;
+			}
+		}
+		values().add( index, element );
+		modCount++;
+	}
+
+	@Override
+	public JsonValue remove( int index ) {
+		JsonValue previous;
+		if ( values != null ) {
+			modCount++;
+			return values.remove( index );
+		}
+		previous = get( index );
+		if ( kind != BOOLEAN ) {
+			System.arraycopy( data, index + 1, data, index, size - index - 1 );
+		} else {
+			for ( int i = index; i < size - 1; i++ )
+				store( i, load( i + 1 ) );
+		}
+		size--;
+		modCount++;
+		return previous;
+	}
+
+	@Override
+	public void clear() {
+		values = null;
+		data = EMPTY;
+		kind = 0;
+		size = 0;
+		modCount++;
+	}
+
+	@Override
+	public int size() {
+		return values != null ? values.size() : size;
+	}
+
+	/**
+	 * Whether the object is a number or boolean holding the primitive of the element at the index.
+	 */
+	private boolean matches( int index, Object o ) {
+		return o instanceof JsonValue && kind( (JsonValue) o ) == kind && primitive( (JsonValue) o ) == load( index );
+	}
+
+	@Override
+	public int indexOf( Object o ) {
+		if ( values != null )
+			return values.indexOf( o );
+		for ( int i = 0; i < size; i++ ) {
+			if ( matches( i, o ) )
+				return i;
+		}
+		return -1;
+	}
+
+	@Override
+	public int lastIndexOf( Object o ) {
+		if ( values != null )
+			return values.lastIndexOf( o );
+		for ( int i = size - 1; i >= 0; i-- ) {
+			if ( matches( i, o ) )
+				return i;
+		}
+		return -1;
+	}
+
+	@Override
+	public boolean contains( Object o ) {
+		return indexOf( o ) >= 0;
+	}
+
+	@Override
+	public boolean remove( Object o ) {
+		int i = indexOf( o );
+		if ( i < 0 )
+			return false;
+		remove( i );
+		return true;
+	}
+
+	@Override
+	public boolean equals( Object o ) {
+		Iterator<?> other;
+		if ( values != null )
+			return values.equals( o );
+		if ( o == this )
+			return true;
+		if ( !( o instanceof List ) || ( (List<?>) o ).size() != size )
+			return false;
+		other = ( (List<?>) o ).iterator();
+		for ( int i = 0; i < size; i++ ) {
+			if ( !matches( i, other.next() ) )
+				return false;
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 1;
+		if ( values != null )
+			return values.hashCode();
+		for ( int i = 0; i < size; i++ )
+			hash = 31 * hash + Long.hashCode( load( i ) );
+		return hash;
+	}
+
+}
@@ -0,0 +1,243 @@
+package net.tx0.jason;
+
+import java.util.*;
+
+/**
+ * Extracts the values at a set of paths from a json text while reading it, without building the object model of
+ * anything else. Paths are written as for {@link JsonValue#find(String)}, for example <pre>"a[0].b"</pre>.
+ *
+ * The paths are compiled into a tree of the member names and indexes they pass. Reading a text follows that tree:
+ * members and elements no path passes are skipped by the scanner without decoding them, only the values at the paths
+ * are built, and arrays are left as soon as the largest index asked for has been read.
+ *
+ * As with {@link JsonValue#find(String)}, the value of a repeated member name is the last one, and values that do not
+ * exist are null. Like {@link JsonReader#skipValue()}, skipped content may not be checked for errors beyond balanced
+ * brackets. Instances are immutable and may be shared between threads.
+ */
+public final class JsonProjection {
+
+	private final List<String> paths;
+	private final Node root = new Node();
+
+	/**
+	 * Compiles the paths.
+	 *
+	 * @throws IllegalArgumentException if a path is not a valid expression
+	 */
+	public JsonProjection( String... paths ) {
+
+		this.paths = Collections.unmodifiableList( new ArrayList<>( Arrays.asList( paths ) ) );
+
+		for ( int t = 0; t < paths.length; t++ )
+			add( paths[t], t );
+
+		root.complete();
+	}
+
+	public List<String> getPaths() {
+		return paths;
+	}
+
+	/**
+	 * Reads the next json text from the reader, a {@link JsonFeedReader} must have been fed the whole text.
+	 *
+	 * @return the values at the paths, in the order of the paths
+	 */
+	public List<JsonValue> project( JsonReader reader ) {
+
+		JsonValue[] values = new JsonValue[paths.size()];
+
+		if ( !reader.hasNext() )
+			throw new JsonException( "Premature end of file" );
+
+		read( reader, reader.next(), root, values );
+
+		if ( reader instanceof JsonReaderImpl )
+			( (JsonReaderImpl) reader ).endDocument();
+
+		return Arrays.asList( values );
+	}
+
+	/**
+	 * Looks up the values at the paths in an object model.
+	 *
+	 * @return the values at the paths, in the order of the paths
+	 */
+	public List<JsonValue> project( JsonValue value ) {
+		JsonValue[] values = new JsonValue[paths.size()];
+		resolve( value, root, values );
+		return Arrays.asList( values );
+	}
+
+	private void add( String path, int target ) {
+
+		Node node = root;
+		int l = path.length();
+
+		for ( int i = 0, j = next( path, i + 1 ); i < l; i = j, j = next( path, j + 1 ) ) {
+
+			char c = path.charAt( i );
+
+			node.below.add( target );
+
+			if ( c == '.' ) {
+
+				node = node.member( path.substring( i + 1, j ) );
+
+			} else if ( c == '[' ) {
+
+				int k = path.indexOf( ']', i );
+
+				if ( k != j - 1 )
+					throw new IllegalArgumentException( "Closing bracket expected in " + path + " at index " + i );
+
+				int index = Integer.parseInt( path.substring( i + 1, k ) );
+				if ( index < 0 )
+					throw new IllegalArgumentException( "Negative index in " + path + " at index " + i );
+
+				node = node.element( index );
+
+			} else if ( i == 0 ) {
+
+				node = node.member( path.substring( 0, j ) );
+
+			} else {
+
+				throw new IllegalArgumentException( "Not a valid expression in " + path + " at index " + i );
+
+			}
+		}
+
+		node.below.add( target );
+		node.at.add( target );
+	}
+
+	private static int next( String path, int index ) {
+		for ( int len = path.length(); index < len; ++index ) {
+			switch ( path.charAt( index ) ) {
+				case '[':
+				case '.':
+					return index;
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Reads the value starting with the token just read.
+	 */
+	private static void read( JsonReader reader, JsonToken token, Node node, JsonValue[] values ) {
+
+		Node child;
+		int i;
+
+		// a repeated member replaces the values found before
+		for ( int target : node.targets )
+			values[target] = null;
+
+		if ( node.selected ) {
+			resolve( JsonParser.parseValue( reader, token ), node, values );
+			return;
+		}
+
+		if ( token == JsonToken.BEGIN_OBJECT ) {
+
+			if ( node.members.isEmpty() ) {
+				reader.skipChildren();
+				return;
+			}
+
+			while ( ( token = reader.next() ) == JsonToken.MEMBER_NAME ) {
+				child = node.members.get( reader.getMemberName() );
+				if ( child == null )
+					reader.skipValue();
+				else
+					read( reader, reader.next(), child, values );
+			}
+
+		} else if ( token == JsonToken.BEGIN_ARRAY ) {
+
+			if ( node.elements.length == 0 ) {
+				reader.skipChildren();
+				return;
+			}
+
+			for ( i = 0; ( token = reader.next() ) != JsonToken.END_ARRAY; i++ ) {
+
+				child = node.elements[i];
+				if ( child != null )
+					read( reader, token, child, values );
+				else if ( token == JsonToken.BEGIN_OBJECT || token == JsonToken.BEGIN_ARRAY )
+					reader.skipChildren();
+
+				if ( i == node.elements.length - 1 ) {
+					reader.skipChildren();
+					break;
+				}
+			}
+		}
+	}
+
+	private static void resolve( JsonValue value, Node node, JsonValue[] values ) {
+
+		for ( int target : node.selection )
+			values[target] = value;
+
+		if ( value == null )
+			return;
+
+		if ( value.getType() == JsonValueType.OBJECT ) {
+			JsonObject object = value.asObject();
+			for ( Map.Entry<String, Node> member : node.members.entrySet() )
+				resolve( object.get( member.getKey() ), member.getValue(), values );
+		} else if ( value.getType() == JsonValueType.ARRAY ) {
+			JsonArray array = value.asArray();
+			for ( int i = 0, l = Math.min( array.size(), node.elements.length ); i < l; i++ ) {
+				if ( node.elements[i] != null )
+					resolve( array.get( i ), node.elements[i], values );
+			}
+		}
+	}
+
+	/**
+	 * A value some path passes or ends at.
+	 */
+	private static final class Node {
+
+		final Map<String, Node> members = new HashMap<>();
+		// by index, up to the largest index asked for
+		Node[] elements = new Node[0];
+
+		// the paths ending here and the paths ending here or below, while they are collected
+		final List<Integer> at = new ArrayList<>(), below = new ArrayList<>();
+
+		boolean selected;
+		int[] selection, targets;
+
+		Node member( String name ) {
+			return members.computeIfAbsent( name, k -> new Node() );
+		}
+
+		Node element( int index ) {
+			if ( index >= elements.length )
+				elements = Arrays.copyOf( elements, index + 1 );
+			if ( elements[index] == null )
+				elements[index] = new Node();
+			return elements[index];
+		}
+
+		void complete() {
+			selection = at.stream().mapToInt( Integer::intValue ).toArray();
+			targets = below.stream().mapToInt( Integer::intValue ).toArray();
+			selected = selection.length > 0;
+			for ( Node child : members.values() )
+				child.complete();
+			for ( Node child : elements ) {
+				if ( child != null )
+					child.complete();
+			}
+		}
+
+	}
+
+}
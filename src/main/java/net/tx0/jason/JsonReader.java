@@ -1,5 +1,6 @@
 package net.tx0.jason;
 
+import java.math.BigDecimal;
 import java.util.Iterator;
 
 /**
@@ -10,9 +11,85 @@ public interface JsonReader extends Iterator<JsonToken> {
 	boolean hasNext();
 	JsonToken next();
 
+	/**
+	 * Skips the token the next call to {@link #next()} would return. If that token begins an object or array,
+	 * the whole object or array is skipped.
+	 *
+	 * Implementations may skip content without checking it for errors beyond balanced brackets.
+	 */
+	default void skipValue() {
+		JsonToken token = next();
+		if ( token == JsonToken.BEGIN_OBJECT || token == JsonToken.BEGIN_ARRAY )
+			skipChildren();
+	}
+
+	/**
+	 * Skips the rest of the innermost object or array being read, including its end.
+	 * Called right after {@link #next()} returned the beginning of an object or array, the whole content is skipped.
+	 * Must only be called while an object or array is being read.
+	 *
+	 * Implementations may skip content without checking it for errors beyond balanced brackets.
+	 */
+	default void skipChildren() {
+		int depth = 1;
+		while ( depth > 0 && hasNext() ) {
+			switch ( next() ) {
+				case BEGIN_OBJECT:
+				case BEGIN_ARRAY:
+					depth++;
+					break;
+				case END_OBJECT:
+				case END_ARRAY:
+					depth--;
+					break;
+			}
+		}
+	}
+
 	String getMemberName();
 	String getStringValue();
 	boolean getBooleanValue();
 	Number getNumberValue();
 
+	/**
+	 * Whether the current number is an integer, written without fraction and exponent.
+	 */
+	default boolean isIntegral() {
+		Number number = getNumberValue();
+		return number instanceof Long || number instanceof BigDecimal && ( (BigDecimal) number ).scale() == 0;
+	}
+
+	/**
+	 * The current number as a java long.
+	 *
+	 * Relies on java number conversion, implementations avoid creating intermediate objects if the number fits.
+	 */
+	default long getLongValue() {
+		return getNumberValue().longValue();
+	}
+
+	/**
+	 * The current number as a java integer, fractions are truncated. Throws a {@link JsonException} if the number
+	 * is out of the range of an integer.
+	 *
+	 * Relies on java number conversion, implementations avoid creating intermediate objects if the number fits.
+	 */
+	default int getIntValue() {
+		Number number = getNumberValue();
+		double value = number.doubleValue();
+		if ( value <= Integer.MIN_VALUE - 1.0 || value >= Integer.MAX_VALUE + 1.0 )
+			throw new JsonException( "Number out of int range (" + number + ")" );
+		return number.intValue();
+	}
+
+	/**
+	 * The current number as a java double.
+	 *
+	 * Relies on java number conversion, implementations avoid creating intermediate objects if the number
+	 * can be converted exactly.
+	 */
+	default double getDoubleValue() {
+		return getNumberValue().doubleValue();
+	}
+
 }
@@ -2,39 +2,101 @@ package net.tx0.jason;
 
 import java.io.IOException;
 import java.math.BigDecimal;
-import java.util.ArrayDeque;
-import java.util.Deque;
-import java.util.NoSuchElementException;
+import java.util.Arrays;
 
 final class JsonReaderImpl implements JsonReader {
 
-	private enum State {
-		VALUE,
-		OBJECT_FIRST_MEMBER,
-		OBJECT_NEXT_MEMBER,
-		OBJECT_NAME_SEPARATOR,
-		ARRAY_FIRST_ELEMENT,
-		ARRAY_NEXT_ELEMENT,
-		ARRAY_VALUE_SEPARATOR,
-		MEMBER_START,
-		MEMBER_VALUE,
-	}
+	// states naming what is expected next
+	private static final byte VALUE = 0;
+	private static final byte ARRAY_FIRST_ELEMENT = 1;
+	private static final byte ARRAY_NEXT_ELEMENT = 2;
+	private static final byte OBJECT_FIRST_MEMBER = 3;
+	private static final byte OBJECT_NEXT_MEMBER = 4;
+	private static final byte MEMBER_VALUE = 5;
+	private static final byte END = 6;
+	private static final byte DOCUMENT_END = 7;
+
+	// no scanner token peeked at
+	private static final int NONE = 0;
+
+	private static final double[] POWERS_OF_TEN = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+		1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+
+	private static final String LONG_LIMIT = Long.toString( Long.MAX_VALUE );
+	private static final String LONG_NEGATIVE_LIMIT = LONG_LIMIT.substring( 0, 18 ) + "8";
 
 	private final JsonScanner scanner;
 	private final boolean strict;
 	private final boolean floatingPoint;
-	private final Deque<State> states = new ArrayDeque<State>();
 	private final int maximumDepth;
+	private final JsonSymbolTable symbols;
+	private final JsonShapeTable shapes;
+	// whether further texts may follow the first one
+	private final boolean documents;
+	// whether the elements of the outermost array are read without brackets, ended by the end of the input
+	private boolean unbracketed;
+
+	// the current state and the states to return to when the enclosing containers end
+	private byte state = VALUE;
+	private byte[] states;
+	private int depth;
+	// the depth of the containers enclosing the text
+	private final int base;
+
+	// the token peeked at by hasNext() when reading several texts
+	private int pending = NONE;
+
+	// the state restored when fed input runs out
+	private byte savedState;
+	private int savedDepth, savedPending;
+	// the comma or colon scanned before a skip that ran out of fed input, returned again when the skip is continued
+	private int resumed = NONE;
 
 	private String attributeName;
 	private String text;
-	
+
+	// scanner token and shape of the current number, its text is taken from the scanner only when requested
+	private int number, fraction, exponent;
+
 	JsonReaderImpl( JsonConfig config, JsonScanner scanner) {
+		this( config, scanner, false );
+	}
+
+	/**
+	 * Creates a reader of one text, or of any number of texts following each other if documents is set.
+	 */
+	JsonReaderImpl( JsonConfig config, JsonScanner scanner, boolean documents ) {
+		this( config, scanner, documents, 0 );
+	}
+
+	/**
+	 * Creates a reader of a text nested in the given number of containers, which count towards the maximum depth.
+	 */
+	JsonReaderImpl( JsonConfig config, JsonScanner scanner, boolean documents, int depth ) {
+		this.documents = documents;
 		this.maximumDepth = config.getMaximumDepth();
 		this.floatingPoint = config.isUseFloatingPoint();
 		this.strict = config.isStrict();
 		this.scanner = scanner;
-		this.states.push( State.VALUE );
+		this.symbols = config.getSymbolTable();
+		this.shapes = config.getShapeTable();
+		this.states = new byte[Math.max( depth + 1, Math.min( maximumDepth, 32 ) )];
+		this.depth = depth;
+		this.base = depth;
+	}
+
+	/**
+	 * Creates a reader of elements cut out of an array, separated by commas but not enclosed in brackets. The reader
+	 * starts as if the opening bracket had been read, and the end of the input ends the array.
+	 */
+	static JsonReaderImpl elements( JsonConfig config, JsonScanner scanner ) {
+		JsonReaderImpl reader = new JsonReaderImpl( config, scanner );
+		reader.state = END;
+		reader.begin( ARRAY_FIRST_ELEMENT );
+		reader.unbracketed = true;
+		return reader;
 	}
 
 	final JsonSyntaxException error( String message ) {
@@ -50,6 +112,8 @@ final class JsonReaderImpl implements JsonReader {
 	
 	@Override
 	public String getStringValue() {
+		if ( text == null && number != 0 )
+			text = scanner.text();
 		return text;
 	}
 	
@@ -62,139 +126,439 @@ final class JsonReaderImpl implements JsonReader {
 
 	@Override
 	public Number getNumberValue() {
-		try {
-			return Long.parseLong( text );
-		} catch ( NumberFormatException e1 ) {
-			if ( floatingPoint ) {
-				try {
-					return Double.parseDouble( text );
-				} catch ( NumberFormatException e2 ) {
-					return new BigDecimal( text );
-				}
-			} else {
-				return new BigDecimal( text );
+		if ( number == JsonScanner.TOKEN_INTEGER && fitsLong() )
+			return getLongValue();
+		else if ( number != 0 && floatingPoint )
+			return getDoubleValue();
+		return new BigDecimal( numberText().toString() );
+	}
+
+	@Override
+	public boolean isIntegral() {
+		if ( number == 0 )
+			throw new JsonException( "No number" );
+		return number == JsonScanner.TOKEN_INTEGER;
+	}
+
+	@Override
+	public long getLongValue() {
+
+		CharSequence digits;
+		long value;
+
+		if ( !isIntegral() || !fitsLong() )
+			return getNumberValue().longValue();
+
+		digits = numberText();
+		value = 0;
+		for ( int p = sign(), l = digits.length(); p < l; p++ )
+			value = value * 10 + ( digits.charAt( p ) - '0' );
+
+		// Long.MIN_VALUE wraps around to itself
+		return sign() == 0 ? value : -value;
+	}
+
+	@Override
+	public int getIntValue() {
+
+		long value;
+		double fraction;
+
+		if ( isIntegral() && fitsLong() ) {
+			value = getLongValue();
+			if ( value != (int) value )
+				throw new JsonException( "Number out of int range (" + numberText() + ")" );
+			return (int) value;
+		}
 
+		fraction = getDoubleValue();
+		if ( fraction <= Integer.MIN_VALUE - 1.0 || fraction >= Integer.MAX_VALUE + 1.0 )
+			throw new JsonException( "Number out of int range (" + numberText() + ")" );
+		return (int) fraction;
+	}
+
+	@Override
+	public double getDoubleValue() {
+
+		CharSequence digits;
+		int p, end, c, count, scale, value;
+		boolean negative;
+		long mantissa;
+
+		digits = numberText();
+		end = exponent != 0 ? exponent - 1 : digits.length();
+
+		// collect up to 15 significant digits and the power of ten they are scaled by
+		mantissa = 0;
+		count = 0;
+		scale = 0;
+
+		for ( p = sign(); p < end; p++ ) {
+			c = digits.charAt( p );
+			if ( c == '.' )
+				continue;
+			if ( count > 0 || c != '0' ) {
+				if ( ++count > 15 )
+					return Double.parseDouble( getStringValue() );
+				mantissa = mantissa * 10 + ( c - '0' );
 			}
+			if ( fraction != 0 && p >= fraction )
+				scale--;
+		}
+
+		if ( exponent != 0 ) {
+			p = exponent;
+			c = digits.charAt( p );
+			negative = c == '-';
+			if ( negative || c == '+' )
+				p++;
+			value = 0;
+			for ( end = digits.length(); p < end && value < 1000; p++ )
+				value = value * 10 + ( digits.charAt( p ) - '0' );
+			scale += negative ? -value : value;
+		}
+
+		negative = sign() != 0;
+
+		// both the mantissa and the power of ten are exact doubles, so a single operation rounds correctly
+		if ( mantissa == 0 ) {
+			return negative ? -0.0 : 0.0;
+		} else if ( scale < -22 || scale > 22 ) {
+			return Double.parseDouble( getStringValue() );
+		} else if ( scale < 0 ) {
+			return negative ? -( mantissa / POWERS_OF_TEN[-scale] ) : mantissa / POWERS_OF_TEN[-scale];
+		} else {
+			return negative ? -( mantissa * POWERS_OF_TEN[scale] ) : mantissa * POWERS_OF_TEN[scale];
+		}
+	}
+
+	/**
+	 * Whether {@link #getNumberValue()} returns the current number as a Long.
+	 */
+	boolean isLong() {
+		return isIntegral() && fitsLong();
+	}
+
+	/**
+	 * Whether {@link #getNumberValue()} returns the current number as a Double.
+	 */
+	boolean isDouble() {
+		return floatingPoint && !isLong();
+	}
+
+	/**
+	 * Whether the current integer is in the range of a long, decided on the digits without parsing them.
+	 */
+	private boolean fitsLong() {
+
+		CharSequence digits;
+		String limit;
+		int p, count;
+		char c;
+
+		digits = numberText();
+		p = sign();
+		count = digits.length() - p;
+
+		if ( count != LONG_LIMIT.length() )
+			return count < LONG_LIMIT.length();
+
+		limit = p == 0 ? LONG_LIMIT : LONG_NEGATIVE_LIMIT;
+		for ( int i = 0; i < count; i++ ) {
+			c = digits.charAt( p + i );
+			if ( c != limit.charAt( i ) )
+				return c < limit.charAt( i );
 		}
+
+		return true;
+	}
+
+	/**
+	 * The length of the sign of the current number.
+	 */
+	private int sign() {
+		return numberText().charAt( 0 ) == '-' ? 1 : 0;
+	}
+
+	private CharSequence numberText() {
+		if ( number == 0 )
+			throw new JsonException( "No number" );
+		return text != null ? text : scanner.number();
 	}
 
 	@Override
 	public boolean hasNext() {
-		return !states.isEmpty();
+		if ( state == VALUE && documents && pending == NONE ) {
+			// whitespace may end the input between texts
+			try {
+				pending = scanner.next();
+			} catch ( IOException e ) {
+				throw JsonException.wrap(e);
+			}
+			if ( pending == JsonScanner.EOF ) {
+				pending = NONE;
+				state = END;
+			}
+		}
+		return state != END;
 	}
 	
 	@Override
 	public JsonToken next() {
 
-		State state;
 		JsonToken tag;
 
 		try {
 
-			tag = next0();
+			number = 0;
+			tag = next0( false );
 
-			if ( states.isEmpty() ) {
-				int token = scanner.next();
-				if ( JsonScanner.EOF != token )
-					throw error("Expected end of file");
-			}
+			if ( state == END )
+				checkEnd();
 
 			return tag;
 
 		} catch ( IOException e ) {
 			throw JsonException.wrap(e);
-		} catch ( NoSuchElementException e ) {
-			throw error( "Bad json syntax" );
 		}
     		
 	}
 
-	private JsonToken next0() throws IOException {
+	@Override
+	public void skipValue() {
+		try {
+			number = 0;
+			next0( true );
+			if ( state == END )
+				checkEnd();
+		} catch ( IOException e ) {
+			throw JsonException.wrap(e);
+		}
+	}
+
+	@Override
+	public void skipChildren() {
 
 		int token;
-		State state;
-
-		do {
-
-			token = scanner.next();
-
-			state = states.pop();
-			switch ( state ) {
-
-				case VALUE:
-					return nextValue( token );
-
-				case ARRAY_FIRST_ELEMENT:
-					if ( token == ']' ) {
-						return JsonToken.END_ARRAY;
-					} else {
-						states.push( State.ARRAY_VALUE_SEPARATOR );
-						return nextValue( token );
-					}
-
-				case ARRAY_NEXT_ELEMENT:
-					states.push( State.ARRAY_VALUE_SEPARATOR );
-					return nextValue( token );
-
-				case ARRAY_VALUE_SEPARATOR:
-					if ( token == ']' ) {
-						return JsonToken.END_ARRAY;
-					} else if ( token == ',' ) {
-						states.push( State.ARRAY_NEXT_ELEMENT );
-						continue;
-					} else {
-						throw error( "] or , expected" );
-					}
-
-				case OBJECT_FIRST_MEMBER:
-					if ( token == '}' ) {
-						return JsonToken.END_OBJECT;
-					} else if ( token == JsonScanner.TOKEN_STRING ) {
-						attributeName = scanner.text();
-						states.push( State.MEMBER_START);
-						return JsonToken.MEMBER_NAME;
-					} else {
-						throw error( "attribute name excepted" );
-					}
-
-				case OBJECT_NEXT_MEMBER:
-					if ( token == JsonScanner.TOKEN_STRING ) {
-						attributeName = scanner.text();
-						states.push( State.MEMBER_START);
-						return JsonToken.MEMBER_NAME;
-					} else {
-						throw error( "attribute name excepted" );
-					}
-
-				case OBJECT_NAME_SEPARATOR:
-
-					if ( token == '}' ) {
-						return JsonToken.END_OBJECT;
-					} else if ( token == ',' ) {
-						states.push( State.OBJECT_NEXT_MEMBER);
-						continue;
-					} else {
-						throw error( "attribute expected" );
-					}
-
-				case MEMBER_START:
-					if ( token != ':' )
-						throw error( "colon excepted" );
-					states.push( State.MEMBER_VALUE);
-					continue;
-
-				case MEMBER_VALUE:
-					states.push( State.OBJECT_NAME_SEPARATOR );
-					return nextValue( token );
+
+		if ( depth == base )
+			return;
+
+		try {
+
+			number = 0;
+			token = scanner.skipChildren();
+
+			if ( state == ARRAY_FIRST_ELEMENT || state == ARRAY_NEXT_ELEMENT ) {
+				if ( token != ']' )
+					throw error( "] expected" );
+			} else if ( token != '}' ) {
+				throw error( "} expected" );
 			}
 
-			// unreachable
-			throw new IllegalStateException();
+			end( null );
+
+			if ( state == END )
+				checkEnd();
+
+		} catch ( IOException e ) {
+			throw JsonException.wrap(e);
+		}
+	}
 
-		} while ( true );
+	/**
+	 * Skips the rest of the innermost object or array like {@link #skipChildren()}, but fails as reading it would if
+	 * it is nested deeper than the maximum depth.
+	 */
+	void skipChildrenWithinDepth() {
+		int enclosing = depth;
+		skipChildren();
+		if ( enclosing + scanner.skippedDepth - 1 >= maximumDepth )
+			throw new JsonException( "Maximum depth exceeded (" + maximumDepth + ")" );
 	}
 
-	private JsonToken nextValue( int token) {
+	/**
+	 * The number of objects and arrays being read.
+	 */
+	int depth() {
+		return depth;
+	}
+
+	/**
+	 * The character offset of the current token, after {@link #skipChildren()} the offset of the closing bracket.
+	 */
+	long position() {
+		return scanner.startPosition;
+	}
+
+	/**
+	 * Remembers the current state, to be restored if fed input runs out before the next token is complete.
+	 */
+	void save() {
+		savedState = state;
+		savedDepth = depth;
+		savedPending = pending;
+	}
+
+	void restore() {
+		state = savedState;
+		depth = savedDepth;
+		pending = resumed != NONE ? resumed : savedPending;
+		resumed = NONE;
+	}
+
+	/**
+	 * Consumes the end of the text just read when reading several texts, so the next call to {@link #next()}
+	 * returns the first token of the following text.
+	 */
+	void endDocument() {
+		if ( state == DOCUMENT_END )
+			state = VALUE;
+	}
+
+	/**
+	 * The shape table of the configuration, null if there is none.
+	 */
+	JsonShapeTable shapes() {
+		return shapes;
+	}
+
+	private void checkEnd() throws IOException {
+		// the number text does not survive scanning the next token
+		if ( number != 0 )
+			getStringValue();
+		if ( JsonScanner.EOF != scanner.next() )
+			throw error("Expected end of file");
+	}
+
+	/**
+	 * Reads the next token, skipping strings, objects and arrays if requested.
+	 */
+	private JsonToken next0( boolean skip ) throws IOException {
+
+		int token;
+
+		if ( state == DOCUMENT_END ) {
+			state = VALUE;
+			return JsonToken.END_DOCUMENT;
+		}
+
+		if ( pending != NONE ) {
+			token = pending;
+			pending = NONE;
+			// the opening bracket has been scanned already
+			if ( skip && ( token == '{' || token == '[' ) ) {
+				if ( scanner.skipChildren() != ( token == '{' ? '}' : ']' ) )
+					throw error( token == '{' ? "} expected" : "] expected" );
+				state = DOCUMENT_END;
+				return token == '{' ? JsonToken.BEGIN_OBJECT : JsonToken.BEGIN_ARRAY;
+			}
+		} else {
+			token = scan( skip );
+		}
+
+		switch ( state ) {
+
+			case VALUE:
+				state = documents ? DOCUMENT_END : END;
+				return nextValue( token, skip );
+
+			case ARRAY_FIRST_ELEMENT:
+				if ( token == ']' )
+					return end( JsonToken.END_ARRAY );
+				state = ARRAY_NEXT_ELEMENT;
+				return nextValue( token, skip );
+
+			case ARRAY_NEXT_ELEMENT:
+				if ( token == ']' ) {
+					return end( JsonToken.END_ARRAY );
+				} else if ( token == ',' ) {
+					return nextValue( scan( token, skip ), skip );
+				} else if ( token == JsonScanner.EOF && unbracketed && depth == 1 ) {
+					return end( JsonToken.END_ARRAY );
+				} else {
+					throw error( "] or , expected" );
+				}
+
+			case OBJECT_FIRST_MEMBER:
+				if ( token == '}' )
+					return end( JsonToken.END_OBJECT );
+				return memberName( token, skip );
+
+			case OBJECT_NEXT_MEMBER:
+				if ( token == '}' ) {
+					return end( JsonToken.END_OBJECT );
+				} else if ( token == ',' ) {
+					return memberName( scan( token, skip ), skip );
+				} else {
+					throw error( "attribute expected" );
+				}
+
+			case MEMBER_VALUE:
+				if ( token != ':' )
+					throw error( "colon excepted" );
+				state = OBJECT_NEXT_MEMBER;
+				return nextValue( scan( token, skip ), skip );
+
+			default:
+				throw error( "Bad json syntax" );
+		}
+	}
+
+	private int scan( boolean skip ) throws IOException {
+		return skip ? scanner.skip() : scanner.next();
+	}
+
+	/**
+	 * Scans the token following a comma or colon. If a skip runs out of fed input, the comma or colon is returned
+	 * again once more input is fed, as the skip is continued where it stopped instead of being scanned again.
+	 */
+	private int scan( int previous, boolean skip ) throws IOException {
+		if ( !skip )
+			return scanner.next();
+		try {
+			return scanner.skip();
+		} catch ( JsonUtf8Scanner.Underflow e ) {
+			if ( ( (JsonUtf8Scanner) scanner ).suspended() )
+				resumed = previous;
+			throw e;
+		}
+	}
+
+	private JsonToken memberName( int token, boolean skip ) {
+		if ( token != JsonScanner.TOKEN_STRING )
+			throw error( "attribute name excepted" );
+		if ( skip )
+			attributeName = null;
+		else if ( symbols != null )
+			attributeName = scanner.name( symbols );
+		else
+			attributeName = scanner.text();
+		state = MEMBER_VALUE;
+		return JsonToken.MEMBER_NAME;
+	}
+
+	/**
+	 * Enters a container, the current state is resumed when it ends.
+	 */
+	private void begin( byte first ) {
+		if ( depth + 1 >= maximumDepth )
+			throw new JsonException( "Maximum depth exceeded (" + ( depth + 1 ) + ")" );
+		if ( depth == states.length )
+			states = Arrays.copyOf( states, Math.min( depth * 2, maximumDepth ) );
+		states[depth++] = state;
+		state = first;
+	}
+
+	private JsonToken end( JsonToken tag ) {
+		state = states[--depth];
+		return tag;
+	}
+
+	/**
+	 * Turns a scanner token into a value, objects and arrays have been skipped entirely if skip is set.
+	 */
+	private JsonToken nextValue( int token, boolean skip ) {
 		switch ( token ) {
 			case JsonScanner.TOKEN_FALSE:
 				text = "false";
@@ -206,23 +570,21 @@ final class JsonReaderImpl implements JsonReader {
 				return JsonToken.NULL;
 			case JsonScanner.TOKEN_INTEGER:
 			case JsonScanner.TOKEN_FRACTIONAL_NUMBER:
-				text = scanner.text();
+				text = null;
+				number = token;
+				fraction = scanner.fraction;
+				exponent = scanner.exponent;
 				return JsonToken.NUMBER;
 			case JsonScanner.TOKEN_STRING:
-				text = scanner.text();
+				text = skip ? null : scanner.text();
 				return JsonToken.STRING;
 			case '{':
-				states.push( State.OBJECT_FIRST_MEMBER);
-				if ( states.size() >= maximumDepth ) {
-					throw new JsonException( "Maximum depth exceeded (" + states.size() + ")" );
-				}
+				if ( !skip )
+					begin( OBJECT_FIRST_MEMBER );
 				return JsonToken.BEGIN_OBJECT;
 			case '[':
-				states.push( State.ARRAY_FIRST_ELEMENT );
-				if ( states.size() >= maximumDepth ) {
-					System.out.println( states );
-					throw new JsonException( "Maximum depth exceeded (" + states.size() + ")" );
-				}
+				if ( !skip )
+					begin( ARRAY_FIRST_ELEMENT );
 				return JsonToken.BEGIN_ARRAY;
 			default:
 				throw new JsonException( "Expected value" );
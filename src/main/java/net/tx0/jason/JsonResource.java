@@ -1,12 +1,14 @@
 package net.tx0.jason;
 
 import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 
 public interface JsonResource {
 
     /**
      * Returns a resource representing the given string.
-     * The string needs to be copied around since resources are read as byte streams, use Jason.
+     * The string is parsed in place, it only needs to be encoded if it is read as a byte stream.
      */
     static JsonResource forString( String contents ) {
         return new JsonResource() {
@@ -16,11 +18,17 @@ public interface JsonResource {
                     return consumer.read(stream);
                 }
             }
+
+            @Override
+            public <T> T readFrom( JsonConfig config, ParseMethod<T> consumer ) throws IOException {
+                return consumer.parse(Json.createReader(config, contents));
+            }
         };
     }
 
     /**
      * Returns a resource representing the given file.
+     * The file is memory mapped when parsed if the configuration asks for it, see {@link JsonConfigBuilder#setMemoryMappedFiles()}.
      */
     static JsonResource forFile( File file ) {
         return new JsonResource() {
@@ -30,6 +38,17 @@ public interface JsonResource {
                     return consumer.read(stream);
                 }
             }
+
+            @Override
+            public <T> T readFrom( JsonConfig config, ParseMethod<T> consumer ) throws IOException {
+                if ( config == null )
+                    config = Json.getDefaultConfig();
+                if ( !config.isMemoryMappedFiles() || file.length() <= config.getMaximumInputBufferSize() )
+                    return JsonResource.super.readFrom( config, consumer );
+                try ( FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ) ) {
+                    return consumer.parse(new JsonReaderImpl(config, JsonScanner.create(config, channel)));
+                }
+            }
         };
     }
 
@@ -58,6 +77,20 @@ public interface JsonResource {
         T read( InputStream stream ) throws IOException;
     }
 
+    interface ParseMethod<T> {
+        T parse( JsonReader reader ) throws IOException;
+    }
+
     <T> T readFrom( ReadMethod<T> consumer ) throws IOException;
 
+    /**
+     * Reads the resource using a {@link JsonReader} with the given configuration.
+     * By default the reader reads the stream supplied by {@link #readFrom(ReadMethod)}.
+     *
+     * @param config the configuration, or null to use the default configuration
+     */
+    default <T> T readFrom( JsonConfig config, ParseMethod<T> consumer ) throws IOException {
+        return readFrom( (stream)-> consumer.parse( Json.createReader( config, stream ) ) );
+    }
+
 }
@@ -2,14 +2,23 @@ package net.tx0.jason;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.PushbackInputStream;
 import java.io.Reader;
 import java.nio.ByteBuffer;
-import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
-import java.nio.charset.CharsetDecoder;
-import java.nio.charset.CoderResult;
-
-final class JsonScanner {
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Splits a json text into tokens.
+ *
+ * There are two scanning engines, {@link JsonCharScanner} works on characters and is used for
+ * {@link Reader}s, text held in memory and input streams in encodings other than UTF-8, {@link JsonUtf8Scanner}
+ * works on the encoded bytes of UTF-8 input and only decodes the contents of strings.
+ */
+abstract class JsonScanner {
 
 	static final int EOF = -1;
 	static final int TOKEN_STRING = -2;
@@ -19,188 +28,180 @@ final class JsonScanner {
 	static final int TOKEN_FALSE = -6;
 	static final int TOKEN_NULL = -7;
 
-	private static final int BUFFER_SIZE = 1 << 10;
-
 	// using a StringBuilder allows to store unescaped text right away,
 	// accessing the output buffer might be faster though.
-	private final StringBuilder text = new StringBuilder();
+	final StringBuilder text = new StringBuilder();
 
-	private final Charset defaultCharset;
-	private int startLine, startColumn;
-	private long startPosition;
+	int startLine, startColumn;
+	long startPosition;
 
-	private int line = 1, column = 1;
-	private long position;
+	// shape of the current number token: the index of the first fraction digit and of the first character
+	// following the exponent marker in the text, zero if the number has no fraction or exponent
+	int fraction, exponent;
 
-	private InputStream inputStream;
-	private Reader reader;
-	private CharsetDecoder decoder;
+	// the deepest nesting reached by the last skipChildren(), one if the skipped content held no objects or arrays
+	int skippedDepth;
 
-	private ByteBuffer input;
-	private CharBuffer output;
-	private boolean eof;
+	// the kinds of the objects and arrays entered while skipping, by depth, a set bit for an object
+	private long[] objects = new long[1];
 
-	JsonScanner( JsonConfig config, InputStream inputStream ) {
+	final int bufferSize;
+	private final int maximumBufferSize;
+	private int fullReads;
 
-		this.defaultCharset = config.getCharset();
-		this.inputStream = inputStream;
+	JsonScanner( JsonConfig config ) {
+		this.bufferSize = config.getInputBufferSize();
+		this.maximumBufferSize = config.getMaximumInputBufferSize();
+	}
 
-		input = ByteBuffer.allocate(BUFFER_SIZE);
-		output = CharBuffer.allocate(BUFFER_SIZE);
+	/**
+	 * Creates a scanner reading the stream, the first bytes are read right away to tell whether it is UTF-8 encoded.
+	 */
+	static JsonScanner create( JsonConfig config, InputStream inputStream ) {
 
-		input.flip();
-		output.flip();
-	}
+		PushbackInputStream stream;
+		byte[] head;
+		int n;
+
+		if ( !StandardCharsets.UTF_8.equals( config.getCharset() ) )
+			return new JsonCharScanner( config, inputStream );
+
+		stream = new PushbackInputStream( inputStream, 4 );
+		head = new byte[4];
+
+		try {
+			n = stream.read( head );
+			if ( n > 0 )
+				stream.unread( head, 0, n );
+		} catch ( IOException e ) {
+			throw JsonException.wrap(e);
+		}
 
-	JsonScanner( JsonConfig config, Reader reader ) {
+		if ( n > 0 && !StandardCharsets.UTF_8.equals( detectCharset( ByteBuffer.wrap( head, 0, n ), config.getCharset() ) ) )
+			return new JsonCharScanner( config, stream );
 
-		this.defaultCharset = null;
-		this.reader = reader;
+		return new JsonUtf8Scanner( config, stream );
+	}
 
-		output = CharBuffer.allocate(BUFFER_SIZE);
-		output.flip();
+	static JsonScanner create( JsonConfig config, Reader reader ) {
+		return new JsonCharScanner( config, reader );
 	}
 
-	private boolean fillInputBuffer() throws IOException {
+	static JsonScanner create( JsonConfig config, CharSequence sequence ) {
+		return new JsonCharScanner( config, sequence );
+	}
 
-		int len;
+	static JsonScanner create( JsonConfig config, CharSequence sequence, int offset, int length ) {
+		return new JsonCharScanner( config, sequence, offset, length );
+	}
 
-		// input in read-mode
+	static JsonScanner create( JsonConfig config, char[] chars, int offset, int length ) {
+		return new JsonCharScanner( config, chars, offset, length );
+	}
 
-		input.compact();
+	/**
+	 * Creates a scanner reading the file behind the channel, memory mapped if the file is UTF-8 encoded.
+	 */
+	static JsonScanner create( JsonConfig config, FileChannel channel ) throws IOException {
 
-		len = inputStream.read( input.array(), input.position(), input.remaining() );
+		ByteBuffer head;
 
-		if ( len == EOF ) {
-			input.flip();
-			return false;
+		if ( StandardCharsets.UTF_8.equals( config.getCharset() ) ) {
+			head = ByteBuffer.allocate( 4 );
+			channel.read( head, 0 );
+			head.flip();
+			if ( StandardCharsets.UTF_8.equals( detectCharset( head, config.getCharset() ) ) )
+				return new JsonUtf8Scanner( config, channel );
 		}
 
-		input.position( input.position() + len );
-		input.flip();
-
-		return true;
+		return create( config, Channels.newInputStream( channel ) );
 	}
 
-	private boolean setupDecoder() throws IOException {
+	/**
+	 * Guesses the encoding of a json text from its first bytes as described in RFC 4627, section 3.
+	 */
+	static Charset detectCharset( ByteBuffer input, Charset defaultCharset ) {
 
 		int p, l;
-		Charset cs;
-
-		if ( !fillInputBuffer() )
-			return false;
 
 		l = input.remaining();
 		p = input.position();
 
 		if ( l > 1 && input.get( p ) == 0 ) {
 			if ( input.get( p+1 ) == 0 )
-				cs = Charset.forName( "UTF-32BE" );
+				return Charset.forName( "UTF-32BE" );
 			else
-				cs = Charset.forName( "UTF-16BE" );
+				return Charset.forName( "UTF-16BE" );
 		} else if ( l > 2 && input.get( p ) != 0 && input.get( p+1 ) == 0 ) {
 			if ( input.get( p+2 ) == 0 )
-				cs = Charset.forName( "UTF-32LE" );
+				return Charset.forName( "UTF-32LE" );
 			else
-				cs = Charset.forName( "UTF-16LE" );
-		} else {
-			cs = defaultCharset;
+				return Charset.forName( "UTF-16LE" );
 		}
 
-		decoder = cs.newDecoder();
-
-		return true;
+		return defaultCharset;
 	}
 
-	private boolean fillOutputBuffer() throws IOException {
-
-		if ( output.hasRemaining() )
-			return true;
-
-		// input in read-mode, output in read-mode
-
-		output.compact();
-
-		if ( reader != null ) {
-
-			int r;
-
-			r = reader.read( output.array(), output.position(), output.limit() );
-			if ( r == -1 ) {
-				output.flip();
-				return false;
-			}
-			output.position( output.position() + r );
-
-		} else {
-
-			if ( !input.hasRemaining() ) {
-				if ( decoder == null ) {
-					if ( !setupDecoder() ) {
-						output.flip();
-						return false;
-					}
-				} else {
-					eof = !fillInputBuffer();
-				}
-			}
-
-			CoderResult cr;
-
-			cr = decoder.decode(input, output, eof);
-
-			if ( output.position() == 0 && cr.isUnderflow() && !eof ) {
-				eof = !fillInputBuffer();
-				cr = decoder.decode(input, output, eof);
-			}
-
-			if ( !cr.isUnderflow() )
-				cr.throwException();
-
-			if ( eof ) {
-				cr = decoder.flush(output);
+	/**
+	 * Records whether the object or array entered at the given depth while skipping is an object.
+	 */
+	final void enter( int depth, int bracket ) {
+		int word = depth >>> 6;
+		if ( word == objects.length )
+			objects = Arrays.copyOf( objects, word * 2 );
+		if ( bracket == '{' )
+			objects[word] |= 1L << depth;
+		else
+			objects[word] &= ~( 1L << depth );
+	}
 
-				if ( !cr.isUnderflow() )
-					cr.throwException();
-			}
-		}
+	/**
+	 * Whether the bracket closes the object or array entered at the given depth while skipping.
+	 */
+	final boolean closes( int depth, int bracket ) {
+		return ( ( objects[depth >>> 6] >>> depth & 1 ) != 0 ) == ( bracket == '}' );
+	}
 
-		output.flip();
+	/**
+	 * Records the outcome of a read and returns the capacity the buffer read into should have.
+	 * Buffers double in size after consecutive reads filled all the space offered, up to the configured maximum.
+	 */
+	final int adapt( int capacity, int requested, int read ) {
 
-		if ( !output.hasRemaining() ) {
-			this.eof = true;
-			return false;
+		if ( read < requested ) {
+			fullReads = 0;
+			return capacity;
 		}
 
-		return true;
-	}
-
-	private int peek() throws IOException {
+		if ( ++fullReads < 2 || capacity >= maximumBufferSize )
+			return capacity;
 
-		if ( eof || !fillOutputBuffer() )
-			return EOF;
+		fullReads = 0;
 
-		return output.get( output.position() );
+		return (int) Math.min( (long) capacity << 1, maximumBufferSize );
 	}
 
-	private int read() throws IOException {
+	/**
+	 * Scans the next token.
+	 *
+	 * @return one of the structural characters, a <code>TOKEN_</code> constant or {@link #EOF}.
+	 */
+	abstract int next() throws IOException;
 
-		if ( eof || !fillOutputBuffer() )
-			return EOF;
+	/**
+	 * Scans the next token like {@link #next()}, but skips strings and entire objects and arrays without
+	 * collecting their text. Skipped content is only checked for balanced brackets and terminated strings.
+	 *
+	 * @return the token, for a skipped object or array its opening bracket
+	 */
+	abstract int skip() throws IOException;
 
-		int ch = output.get();
-
-		if ( ch != EOF ) {
-			position++;
-			if ( ch == '\n' ) {
-				line++;
-				column = 0;
-			}
-			column++;
-		}
-
-		return ch;
-	}
+	/**
+	 * Skips the rest of the innermost object or array like {@link #skip()} does.
+	 *
+	 * @return the bracket closing the object or array
+	 */
+	abstract int skipChildren() throws IOException;
 
 	void close() {
 	}
@@ -208,221 +209,27 @@ final class JsonScanner {
 	String text() {
 		return text.toString();
 	}
-	
-	private final JsonException error( String message ) {
-		return new JsonSyntaxException( message, location() );
-	}
-
-	final JsonLocation location() {
-		return new JsonLocation( startPosition, startLine, startColumn );
-	}
 
-	final int next() throws IOException {
-
-		int c;
-
-		text.setLength( 0 );
-
-		// skip space
-		do {
-
-			startPosition = position;
-			startLine = line;
-			startColumn = column;
-
-			c = read();
-
-		} while ( c == '\n' || c == '\r' || c == ' ' || c == '\t' );
-
-		if ( c == EOF )
-			return EOF;
-
-		switch ( c ) {
-			case ',':
-			case ':':
-			case '{':
-			case '}':
-			case '[':
-			case ']':
-				text.appendCodePoint(c);
-				return c;
-
-			case '"':
-				scanString();
-				return TOKEN_STRING;
-
-			// no leading zeros
-			case '0':
-				text.appendCodePoint(c);
-				c = peek();
-				if ( c == '.' ) {
-					text.appendCodePoint( read() );
-					return scanNumberFraction();
-				} else if ( c == 'e' ) {
-					text.appendCodePoint( read() );
-					return scanNumberExponent();
-				}
-				return TOKEN_INTEGER;
-
-			case '-':
-				text.appendCodePoint(c);
-				c = peek();
-				if ( c == '0' ) {
-					text.appendCodePoint( read() );
-					c = peek();
-					if ( c == '.' ) {
-						text.appendCodePoint( read() );
-						return scanNumberFraction();
-					} else if ( c == 'e' ) {
-						text.appendCodePoint( read() );
-						return scanNumberExponent();
-					}
-					return TOKEN_INTEGER;
-				} else if ( c >= '1' && c <= '9' ) {
-					text.appendCodePoint( read() );
-					return scanNumber();
-				}
-				throw error("invalid number (negative without integer part)");
-
-			case '1':case '2': case '3': case '4':
-			case '5':case '6':case '7': case '8': case '9':
-				text.appendCodePoint(c);
-				return scanNumber();
-
-			case 't':
-				if ( ( c = read() ) == 'r' )
-					if ( ( c = read() ) == 'u' )
-						if ( ( c = read() ) == 'e' )
-							return TOKEN_TRUE;
-				throw error( "Illegal content" );
-			case 'f':
-				if ( ( c = read() ) == 'a' )
-					if ( ( c = read() ) == 'l' )
-						if ( ( c = read() ) == 's' )
-							if ( ( c = read() ) == 'e' )
-								return TOKEN_FALSE;
-				throw error( "Illegal content" );
-			case 'n':
-				if ( ( c = read() ) == 'u' )
-					if ( ( c = read() ) == 'l' )
-						if ( ( c = read() ) == 'l' )
-							return TOKEN_NULL;
-				throw error( "Illegal content" );
-
-			default:
-				throw error( "Illegal content '" + (char) c + "'" );
-		}
+	/**
+	 * The text of the current string token as found in the symbol table.
+	 */
+	String name( JsonSymbolTable symbols ) {
+		return symbols.get( text, 0, text.length() );
 	}
 
-	private final int scanNumber() throws IOException {
-		int c;
-		do {
-			c = peek();
-			if ( !( c >= '0' && c <= '9' ) ) {
-				if ( c == '.' ) {
-					text.appendCodePoint( read() );
-					return scanNumberFraction();
-				}
-				if ( c == 'e' || c == 'E' ) {
-					text.appendCodePoint( read() );
-					return scanNumberExponent();
-				}
-				return TOKEN_INTEGER;
-			}
-			text.appendCodePoint( read() ); 
-		} while ( true );
-	}
-
-	private final int scanNumberFraction() throws IOException {
-		
-		int c;
-		
-		c = peek();
-		
-		if ( c < '0' || c > '9' )
-			throw error( "Fractional digits expected" );
-		
-		do {
-			text.appendCodePoint( read() );
-			c = peek();
-		} while ( c >= '0' && c <= '9' );
-		
-		if ( c == 'e' || c == 'E' ) {
-			text.appendCodePoint( read() );
-			return scanNumberExponent();
-		}
-		
-		return TOKEN_FRACTIONAL_NUMBER;
+	/**
+	 * The characters of the current number token, valid until the next token is scanned.
+	 */
+	final CharSequence number() {
+		return text;
 	}
 
-	private final int scanNumberExponent() throws IOException {
-		
-		int c;
-		
-		c = peek();
-		
-		if ( c == '-' || c == '+' ) {
-			text.appendCodePoint( read() );
-			c = peek();
-		}
-		
-		if ( c < '0' || c > '9' )
-			throw error( "Exponential digits expected" );
-
-		do {
-			text.appendCodePoint( read() );
-			c = peek();
-		} while ( c >= '0' && c <= '9' );
-		
-		return TOKEN_FRACTIONAL_NUMBER;
+	final JsonException error( String message ) {
+		return new JsonSyntaxException( message, location() );
 	}
 
-	private final void scanString() throws IOException {
-		int c;
-		c = read();
-		while ( c != '"' && c != -1 ) {
-			if ( c == '\\' ) {
-				c = read();
-				switch ( c ) {
-					case '"': text.append( '"' ); break;
-					case '\\': text.append( '\\' ); break;
-					case '/': text.append( '/' ); break;
-					case 'b': text.append( '\b' ); break;
-					case 'f': text.append( '\f' ); break;
-					case 'n': text.append( '\n' ); break;
-					case 'r': text.append( '\r' ); break;
-					case 't': text.append( '\t' ); break;
-					case 'u':
-					{
-						int v = 0;
-						v = xdigit() << 12;
-						v += xdigit() << 8;
-						v += xdigit() << 4;
-						v += xdigit();
-						text.appendCodePoint( v ); 
-						break;
-					}
-					default:
-						throw error( "Illegal escape character" );
-						
-				}
-			} else if ( c < 0x20 ) {
-				throw error( "Control character in string" );
-			} else {
-				text.appendCodePoint( c );
-			}
-			c = read();
-		}
-		if ( c == -1 )
-			throw error( "Unterminated string" );
+	final JsonLocation location() {
+		return new JsonLocation( startPosition, startLine, startColumn );
 	}
 
-	private int xdigit() throws IOException {
-		int c = read();
-		if ( c >= '0' && c <= '9' ) return c - '0';
-		if ( c >= 'a' && c <= 'f' ) return 10 + c - 'a';
-		if ( c >= 'A' && c <= 'F' ) return 10 + c - 'A';
-		throw error( "Illegal content" );
-	}
-	
 }
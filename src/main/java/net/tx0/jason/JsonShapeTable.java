@@ -0,0 +1,74 @@
+package net.tx0.jason;
+
+import java.util.Arrays;
+
+/**
+ * Canonical member name sequences of parsed objects, kept in a fixed number of slots.
+ *
+ * Objects having the same names in the same order share one array of names and its lookup table, and
+ * only keep their own values. Like {@link JsonSymbolTable} the table is shared between threads without
+ * locking, shapes are immutable and replace the shape occupying their slot.
+ */
+final class JsonShapeTable {
+
+	static final class Shape {
+
+		final String[] keys;
+		// lookup table of the names, null for shapes searched linearly
+		final int[] table;
+
+		Shape( String[] keys, int[] table ) {
+			this.keys = keys;
+			this.table = table;
+		}
+
+	}
+
+	private final Shape[] shapes;
+	private final int mask;
+
+	JsonShapeTable( int size ) {
+		int slots = Integer.highestOneBit( size );
+		if ( slots < size )
+			slots <<= 1;
+		this.shapes = new Shape[ slots ];
+		this.mask = slots - 1;
+	}
+
+	int size() {
+		return shapes.length;
+	}
+
+	/**
+	 * Returns the canonical shape for the first names of the array.
+	 */
+	Shape get( String[] keys, int size ) {
+
+		int h = size;
+		Shape shape;
+
+		for ( int i = 0; i < size; i++ )
+			h = 31 * h + keys[i].hashCode();
+
+		int slot = ( h ^ ( h >>> 16 ) ) & mask;
+
+		shape = shapes[slot];
+		if ( shape != null && shape.keys.length == size && matches( shape.keys, keys, size ) )
+			return shape;
+
+		keys = Arrays.copyOf( keys, size );
+		shape = new Shape( keys, JsonObjectMap.table( keys, size ) );
+		shapes[slot] = shape;
+
+		return shape;
+	}
+
+	private static boolean matches( String[] shape, String[] keys, int size ) {
+		for ( int i = 0; i < size; i++ ) {
+			if ( shape[i] != keys[i] && !shape[i].equals( keys[i] ) )
+				return false;
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,32 @@
+package net.tx0.jason;
+
+/**
+ * The source text of an object or array that has not been parsed yet, see {@link JsonConfigBuilder#setLazyParsing()}.
+ *
+ * Spans of one document share its characters, the text is scanned in place when a span is expanded.
+ */
+final class JsonSpan {
+
+	final JsonConfig config;
+	final CharSequence text;
+	// offsets of the opening bracket and following the closing bracket
+	final int start, end;
+	// the number of objects and arrays enclosing the span, they count towards the maximum depth
+	final int depth;
+
+	JsonSpan( JsonConfig config, CharSequence text, int start, int end, int depth ) {
+		this.config = config;
+		this.text = text;
+		this.start = start;
+		this.end = end;
+		this.depth = depth;
+	}
+
+	/**
+	 * Creates a reader for the object or array, token offsets it reports are relative to the start of the span.
+	 */
+	JsonReaderImpl reader() {
+		return new JsonReaderImpl( config, JsonScanner.create( config, text, start, end - start ), false, depth );
+	}
+
+}
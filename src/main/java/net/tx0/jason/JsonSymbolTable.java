@@ -0,0 +1,82 @@
+package net.tx0.jason;
+
+/**
+ * Canonical strings for member names, kept in a fixed number of slots.
+ *
+ * The table is shared between threads without locking. Slots only hold immutable strings, so a lookup
+ * either finds a complete entry or misses it and creates the string, which then replaces the entry
+ * occupying its slot.
+ */
+final class JsonSymbolTable {
+
+	private final String[] symbols;
+	private final int mask;
+
+	JsonSymbolTable( int size ) {
+		int slots = Integer.highestOneBit( size );
+		if ( slots < size )
+			slots <<= 1;
+		this.symbols = new String[ slots ];
+		this.mask = slots - 1;
+	}
+
+	int size() {
+		return symbols.length;
+	}
+
+	/**
+	 * Returns the canonical string for the given characters.
+	 */
+	String get( char[] chars, int offset, int length ) {
+
+		int h = 0;
+		String symbol;
+
+		for ( int i = offset, l = offset + length; i < l; i++ )
+			h = 31 * h + chars[i];
+
+		symbol = symbols[slot( h )];
+		if ( symbol != null && symbol.hashCode() == h && symbol.length() == length ) {
+			for ( int i = 0; i < length; i++ ) {
+				if ( symbol.charAt( i ) != chars[offset + i] )
+					return put( h, new String( chars, offset, length ) );
+			}
+			return symbol;
+		}
+
+		return put( h, new String( chars, offset, length ) );
+	}
+
+	/**
+	 * Returns the canonical string for the given range of characters.
+	 */
+	String get( CharSequence chars, int start, int end ) {
+
+		int h = 0;
+		String symbol;
+
+		for ( int i = start; i < end; i++ )
+			h = 31 * h + chars.charAt( i );
+
+		symbol = symbols[slot( h )];
+		if ( symbol != null && symbol.hashCode() == h && symbol.length() == end - start ) {
+			for ( int i = start; i < end; i++ ) {
+				if ( symbol.charAt( i - start ) != chars.charAt( i ) )
+					return put( h, chars.subSequence( start, end ).toString() );
+			}
+			return symbol;
+		}
+
+		return put( h, chars.subSequence( start, end ).toString() );
+	}
+
+	private String put( int h, String symbol ) {
+		symbols[slot( h )] = symbol;
+		return symbol;
+	}
+
+	private int slot( int h ) {
+		return ( h ^ ( h >>> 16 ) ) & mask;
+	}
+
+}
@@ -9,8 +9,33 @@ public class JsonSyntaxException extends JsonException {
         this.location = location;
     }
 
+    private JsonSyntaxException( String message, JsonLocation location, JsonException cause ) {
+        super(message + " at " + location, cause );
+        this.location = location;
+    }
+
     public JsonLocation getLocation() {
         return location;
     }
 
+    /**
+     * The same error found in the given line of a larger input, the location keeps its column.
+     */
+    JsonSyntaxException inLine( long line ) {
+        String message = getMessage();
+        return inLine( this, message.substring( 0, message.lastIndexOf( " at " ) ), location, line );
+    }
+
+    /**
+     * An error without a location raised while reading the given line of a larger input, found at the location.
+     */
+    static JsonSyntaxException inLine( JsonException cause, JsonLocation location, long line ) {
+        return inLine( cause, cause.getMessage(), location, line );
+    }
+
+    private static JsonSyntaxException inLine( JsonException cause, String message, JsonLocation location, long line ) {
+        return new JsonSyntaxException( message,
+                new JsonLocation( location.getPosition(), (int) Math.min( line, Integer.MAX_VALUE ), location.getColumn() ), cause );
+    }
+
 }
@@ -0,0 +1,506 @@
+package net.tx0.jason;
+
+import java.util.*;
+
+/**
+ * A document stored as a flat array of longs, see {@link JsonConfigBuilder#setCompactDocuments()}.
+ *
+ * Every value takes one entry holding a tag in the upper byte and a payload in the lower seven bytes:
+ * integers that fit into the payload are stored right there, strings and other numbers are indices into pools
+ * shared by the whole document, doubles keep their bits in a second entry. Objects and arrays take two entries,
+ * the first holds the index following their last value, the second the number of values. Objects are followed by
+ * pairs of a name and a value, member names are stored once per document.
+ *
+ * {@link JsonValue} instances are created each time a value is accessed, objects and arrays are read-only views.
+ * Members of objects with more than eight members are looked up through a table of their names, which is built
+ * when the first member is looked up and kept with the document, smaller objects are searched linearly.
+ */
+final class JsonTape {
+
+	private static final int NULL = 1;
+	private static final int TRUE = 2;
+	private static final int FALSE = 3;
+	private static final int LONG = 4;
+	private static final int DOUBLE = 5;
+	private static final int NUMBER = 6;
+	private static final int STRING = 7;
+	private static final int OBJECT = 8;
+	private static final int ARRAY = 9;
+
+	private static final int PAYLOAD_BITS = 56;
+	private static final long PAYLOAD_MASK = ( 1L << PAYLOAD_BITS ) - 1;
+
+	// marks objects with repeated member names in their second entry, of which the last value counts
+	private static final long DUPLICATES = 1L << 32;
+	// the number of the table of an object in the bits of its second entry above, zero if it has none
+	private static final int TABLE_SHIFT = 33;
+
+	// objects up to this number of members have no table
+	private static final int LINEAR = 8;
+
+	private final long[] tape;
+	private final String[] strings;
+	private final Number[] numbers;
+	// the tables of the objects numbered, null until a member of the object is looked up
+	private final Table[] tables;
+
+	private JsonTape( long[] tape, String[] strings, Number[] numbers, int tables ) {
+		this.tape = tape;
+		this.strings = strings;
+		this.numbers = numbers;
+		this.tables = new Table[tables];
+	}
+
+	/**
+	 * Reads one json text into a tape and returns its value.
+	 */
+	static JsonValue parse( JsonReader reader ) {
+		return new Builder().build( reader ).value( 0 );
+	}
+
+	private static int tag( long entry ) {
+		return (int) ( entry >>> PAYLOAD_BITS );
+	}
+
+	private static long entry( int tag, long payload ) {
+		return (long) tag << PAYLOAD_BITS | payload & PAYLOAD_MASK;
+	}
+
+	private int next( int p ) {
+		return next( tape, p );
+	}
+
+	/**
+	 * The index following the value at the given index.
+	 */
+	private static int next( long[] tape, int p ) {
+		switch ( tag( tape[p] ) ) {
+			case OBJECT:
+			case ARRAY:
+				return (int) ( tape[p] & PAYLOAD_MASK );
+			case DOUBLE:
+				return p + 2;
+			default:
+				return p + 1;
+		}
+	}
+
+	private JsonValue value( int p ) {
+		long entry = tape[p];
+		switch ( tag( entry ) ) {
+			case NULL:
+				return null;
+			case TRUE:
+				return JsonBoolean.TRUE;
+			case FALSE:
+				return JsonBoolean.FALSE;
+			case LONG:
+				// sign extends the payload
+				return JsonNumber.createNumber( entry << 64 - PAYLOAD_BITS >> 64 - PAYLOAD_BITS );
+			case DOUBLE:
+				return JsonNumber.createNumber( Double.longBitsToDouble( tape[p + 1] ) );
+			case NUMBER:
+				return JsonNumber.createNumber( numbers[(int) ( entry & PAYLOAD_MASK )] );
+			case STRING:
+				return new JsonString( strings[(int) ( entry & PAYLOAD_MASK )] );
+			case OBJECT:
+				return new JsonObject( new ObjectView( this, p ) );
+			case ARRAY:
+				return new JsonArray( new ArrayView( this, p ) );
+			default:
+				throw new IllegalStateException( "Corrupt tape at " + p );
+		}
+	}
+
+	private String name( int p ) {
+		return strings[(int) ( tape[p] & PAYLOAD_MASK )];
+	}
+
+	/**
+	 * The members of an object on the tape.
+	 */
+	private static final class ObjectView extends AbstractMap<String, JsonValue> {
+
+		private final JsonTape document;
+		private final int start, end;
+
+		ObjectView( JsonTape document, int p ) {
+			this.document = document;
+			this.start = p + 2;
+			this.end = document.next( p );
+		}
+
+		private boolean duplicates() {
+			return ( document.tape[start - 1] & DUPLICATES ) != 0;
+		}
+
+		/**
+		 * The index of the last value of the named member, -1 if there is none.
+		 */
+		private int find( Object key, int from ) {
+			int found = -1, table = (int) ( document.tape[start - 1] >>> TABLE_SHIFT );
+			if ( table > 0 )
+				return table( table - 1 ).find( document, key );
+			for ( int p = from; p < end; p = document.next( p + 1 ) ) {
+				if ( document.name( p ).equals( key ) ) {
+					found = p + 1;
+					if ( !duplicates() )
+						break;
+				}
+			}
+			return found;
+		}
+
+		@Override
+		public int size() {
+			return (int) document.tape[start - 1];
+		}
+
+		@Override
+		public boolean containsKey( Object key ) {
+			return find( key, start ) >= 0;
+		}
+
+		@Override
+		public JsonValue get( Object key ) {
+			int p = find( key, start );
+			return p < 0 ? null : document.value( p );
+		}
+
+		@Override
+		public Set<Entry<String, JsonValue>> entrySet() {
+			return new AbstractSet<Entry<String, JsonValue>>() {
+
+				@Override
+				public Iterator<Entry<String, JsonValue>> iterator() {
+					return new Iterator<Entry<String, JsonValue>>() {
+
+						private int p = skipRepeated( start );
+
+						@Override
+						public boolean hasNext() {
+							return p < end;
+						}
+
+						@Override
+						public Entry<String, JsonValue> next() {
+							if ( p >= end )
+								throw new NoSuchElementException();
+							String name = document.name( p );
+							// repeated names keep their first position, but take the last value
+							int value = duplicates() ? find( name, p ) : p + 1;
+							p = skipRepeated( document.next( p + 1 ) );
+							return new SimpleImmutableEntry<>( name, document.value( value ) );
+						}
+					};
+				}
+
+				@Override
+				public int size() {
+					return ObjectView.this.size();
+				}
+			};
+		}
+
+		/**
+		 * Skips members whose name appeared before.
+		 */
+		private int skipRepeated( int p ) {
+			if ( duplicates() ) {
+				while ( p < end && first( document.name( p ) ) < p )
+					p = document.next( p + 1 );
+			}
+			return p;
+		}
+
+		private int first( String name ) {
+			int p = start;
+			while ( !document.name( p ).equals( name ) )
+				p = document.next( p + 1 );
+			return p;
+		}
+
+		/**
+		 * The table of the object, built by the first lookup. Lookups racing to build it each build their own.
+		 */
+		private Table table( int number ) {
+			Table table = document.tables[number];
+			if ( table == null )
+				document.tables[number] = table = new Table( document, start, end, size() );
+			return table;
+		}
+
+	}
+
+	/**
+	 * The members of an object by name, slots hold the index of the last value of a name, zero for empty slots.
+	 * Filled before it is shared, the final field makes the slots visible to all threads.
+	 */
+	private static final class Table {
+
+		private final int[] slots;
+
+		Table( JsonTape document, int start, int end, int size ) {
+			int[] slots = new int[Integer.highestOneBit( size * 4 - 1 )];
+			int mask = slots.length - 1, slot;
+			String name;
+			for ( int p = start; p < end; p = document.next( p + 1 ) ) {
+				name = document.name( p );
+				// a repeated name replaces its earlier value in the slot
+				for ( slot = hash( name ) & mask; slots[slot] != 0; slot = ( slot + 1 ) & mask ) {
+					if ( document.name( slots[slot] - 1 ).equals( name ) )
+						break;
+				}
+				slots[slot] = p + 1;
+			}
+			this.slots = slots;
+		}
+
+		private static int hash( String name ) {
+			int h = name.hashCode();
+			return h ^ ( h >>> 16 );
+		}
+
+		int find( JsonTape document, Object key ) {
+			int[] slots = this.slots;
+			int mask = slots.length - 1;
+			if ( !( key instanceof String ) )
+				return -1;
+			for ( int slot = hash( (String) key ) & mask, i; ( i = slots[slot] ) != 0; slot = ( slot + 1 ) & mask ) {
+				if ( document.name( i - 1 ).equals( key ) )
+					return i;
+			}
+			return -1;
+		}
+
+	}
+
+	/**
+	 * The elements of an array on the tape.
+	 */
+	private static final class ArrayView extends AbstractList<JsonValue> implements RandomAccess {
+
+		private final JsonTape document;
+		private final int start, size;
+		// the last element accessed and its index on the tape, so traversing the array in order takes linear time
+		private volatile long cursor;
+
+		ArrayView( JsonTape document, int p ) {
+			this.document = document;
+			this.start = p + 2;
+			this.size = (int) document.tape[p + 1];
+			this.cursor = start;
+		}
+
+		@Override
+		public JsonValue get( int index ) {
+
+			long cursor = this.cursor;
+			int i = (int) ( cursor >>> 32 ), p = (int) cursor;
+
+			if ( index < 0 || index >= size )
+				throw new IndexOutOfBoundsException( "Index " + index + " out of bounds for length " + size );
+
+			if ( index < i ) {
+				i = 0;
+				p = start;
+			}
+			for ( ; i < index; i++ )
+				p = document.next( p );
+
+			this.cursor = (long) i << 32 | p;
+
+			return document.value( p );
+		}
+
+		@Override
+		public Iterator<JsonValue> iterator() {
+			return new Iterator<JsonValue>() {
+
+				private int i, p = start;
+
+				@Override
+				public boolean hasNext() {
+					return i < size;
+				}
+
+				@Override
+				public JsonValue next() {
+					if ( i >= size )
+						throw new NoSuchElementException();
+					JsonValue value = document.value( p );
+					p = document.next( p );
+					i++;
+					return value;
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+	}
+
+	/**
+	 * Appends the tokens of a text to the tape.
+	 */
+	private static final class Builder {
+
+		private long[] tape = new long[64];
+		private int length;
+
+		private String[] strings = new String[16];
+		private int stringCount;
+		private final Map<String, Integer> names = new HashMap<>();
+
+		private Number[] numbers = new Number[0];
+		private int numberCount;
+
+		// the first entries of the open objects and arrays and the number of values they hold
+		private int[] open = new int[16];
+		private int[] counts = new int[16];
+		private int depth;
+
+		// the object whose names are checked for repetitions, by member name
+		private int[] seen = new int[16];
+		private int objects;
+		// the number of objects given a table
+		private int tables;
+
+		JsonTape build( JsonReader reader ) {
+
+			if ( !reader.hasNext() )
+				throw new JsonException( "Premature end of file" );
+
+			do {
+				JsonToken token = reader.next();
+				switch ( token ) {
+					case BEGIN_OBJECT:
+						begin( OBJECT );
+						break;
+					case BEGIN_ARRAY:
+						begin( ARRAY );
+						break;
+					case END_OBJECT:
+					case END_ARRAY:
+						end();
+						break;
+					case MEMBER_NAME:
+						append( entry( STRING, name( reader.getMemberName() ) ) );
+						break;
+					case NULL:
+						value( entry( NULL, 0 ) );
+						break;
+					case BOOLEAN:
+						value( entry( reader.getBooleanValue() ? TRUE : FALSE, 0 ) );
+						break;
+					case STRING:
+						value( entry( STRING, string( reader.getStringValue() ) ) );
+						break;
+					case NUMBER:
+						number( reader.getNumberValue() );
+						break;
+					default:
+						throw new JsonException( "Unexpected token " + token );
+				}
+			} while ( depth > 0 );
+
+			return new JsonTape( Arrays.copyOf( tape, length ), Arrays.copyOf( strings, stringCount ),
+					Arrays.copyOf( numbers, numberCount ), tables );
+		}
+
+		private void append( long entry ) {
+			if ( length == tape.length )
+				tape = Arrays.copyOf( tape, length * 2 );
+			tape[length++] = entry;
+		}
+
+		private void value( long entry ) {
+			if ( depth > 0 )
+				counts[depth - 1]++;
+			append( entry );
+		}
+
+		private void number( Number number ) {
+			long l;
+			if ( number instanceof Long && ( l = number.longValue() ) == l << 64 - PAYLOAD_BITS >> 64 - PAYLOAD_BITS ) {
+				value( entry( LONG, l ) );
+			} else if ( number instanceof Double ) {
+				value( entry( DOUBLE, 0 ) );
+				append( Double.doubleToRawLongBits( number.doubleValue() ) );
+			} else {
+				if ( numberCount == numbers.length )
+					numbers = Arrays.copyOf( numbers, Math.max( 16, numberCount * 2 ) );
+				numbers[numberCount] = number;
+				value( entry( NUMBER, numberCount++ ) );
+			}
+		}
+
+		private int string( String string ) {
+			if ( stringCount == strings.length )
+				strings = Arrays.copyOf( strings, stringCount * 2 );
+			strings[stringCount] = string;
+			return stringCount++;
+		}
+
+		private int name( String name ) {
+			Integer index = names.get( name );
+			if ( index == null ) {
+				index = string( name );
+				names.put( name, index );
+			}
+			return index;
+		}
+
+		private void begin( int tag ) {
+			if ( depth == open.length ) {
+				open = Arrays.copyOf( open, depth * 2 );
+				counts = Arrays.copyOf( counts, depth * 2 );
+			}
+			value( entry( tag, 0 ) );
+			open[depth] = length - 1;
+			counts[depth++] = 0;
+			append( 0 );
+		}
+
+		private void end() {
+			int p = open[--depth];
+			tape[p] |= length;
+			tape[p + 1] = counts[depth];
+			if ( tag( tape[p] ) == OBJECT ) {
+				checkNames( p );
+				if ( (int) tape[p + 1] > LINEAR )
+					tape[p + 1] |= (long) ++tables << TABLE_SHIFT;
+			}
+		}
+
+		/**
+		 * Flags objects repeating a member name and counts each name once.
+		 */
+		private void checkNames( int p ) {
+
+			int end = length, name, repeated = 0;
+
+			if ( counts[depth] < 2 )
+				return;
+
+			if ( seen.length < stringCount )
+				seen = Arrays.copyOf( seen, Math.max( stringCount, seen.length * 2 ) );
+
+			objects++;
+			for ( int q = p + 2; q < end; q = next( tape, q + 1 ) ) {
+				name = (int) ( tape[q] & PAYLOAD_MASK );
+				if ( seen[name] == objects )
+					repeated++;
+				seen[name] = objects;
+			}
+
+			if ( repeated > 0 )
+				tape[p + 1] = DUPLICATES | counts[depth] - repeated;
+		}
+
+	}
+
+}
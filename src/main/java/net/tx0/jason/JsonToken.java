@@ -15,4 +15,14 @@ public enum JsonToken {
 	NUMBER,
 	STRING,
 
+	/**
+	 * Ends each text read by a reader of several texts, see {@link Json#createMultiDocumentReader(JsonConfig, java.io.Reader)}.
+	 */
+	END_DOCUMENT,
+
+	/**
+	 * Returned by {@link JsonFeedReader} when the input fed so far ends before the next token.
+	 */
+	NEED_INPUT,
+
 }
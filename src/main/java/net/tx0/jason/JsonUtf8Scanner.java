@@ -0,0 +1,828 @@
+package net.tx0.jason;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.MalformedInputException;
+
+/**
+ * Scanning engine working on UTF-8 encoded bytes.
+ *
+ * Structural characters, literals and numbers never need to be decoded, only the contents
+ * of strings are decoded while they are unescaped. Locations are still reported
+ * as character offsets, not byte offsets.
+ *
+ * Files are scanned from memory mapped windows, which are moved along the file instead of copying input around.
+ *
+ * Fed input is handed over in chunks by the caller. Running out of it within a token throws {@link Underflow}, the
+ * reader then restores the scanner to where the token started, and scans the token again once more input is fed.
+ * Skips are continued where they stopped instead, so the bytes skipped are discarded as input is fed.
+ */
+final class JsonUtf8Scanner extends JsonScanner {
+
+	// size of the windows mapped from files
+	private static final long MAPPING_SIZE = 1 << 30;
+
+	private final InputStream inputStream;
+	private final FileChannel channel;
+	// file offset of the first byte in the input buffer
+	private long mapped;
+
+	// bytes between pos and limit have not been scanned yet
+	private ByteBuffer input;
+	private int pos, limit, capacity;
+	private boolean eof;
+
+	// receives runs of ascii characters before they are appended to text
+	private char[] chars;
+
+	// character offset of the first byte in the input buffer and of the current line
+	private long base, lineStart;
+	private int line = 1;
+
+	// whether the input is fed, and the byte that must be fed for the token that ran out of input to be completed,
+	// zero if not known, and the offset from which fed input has not been examined for it
+	private boolean fed, starved;
+	private int awaited, checked;
+
+	// the position restored when fed input runs out
+	private int savedPos, savedLine;
+	private long savedBase, savedLineStart;
+
+	// a skip that ran out of fed input, continued where it stopped: the token skip() returns for it, the depth within
+	// the objects and arrays skipped, zero outside of them, and whether it stopped within a string, after a backslash
+	private int skipToken, skipDepth;
+	private boolean skipString, skipEscape;
+
+	// the token returned by the last skip and the position following it, restored instead of the saved position if
+	// fed input runs out after the skip, so it is returned again right away
+	private int skipped, skippedPos, skippedLine;
+	private long skippedBase, skippedLineStart;
+	private boolean replay;
+
+	JsonUtf8Scanner( JsonConfig config, InputStream inputStream ) {
+		super( config );
+		this.inputStream = inputStream;
+		this.channel = null;
+		this.capacity = bufferSize;
+		this.input = ByteBuffer.allocate( capacity );
+		this.chars = new char[ capacity ];
+	}
+
+	/**
+	 * Creates a scanner reading from a file known to be UTF-8 encoded.
+	 */
+	JsonUtf8Scanner( JsonConfig config, FileChannel channel ) {
+		super( config );
+		this.inputStream = null;
+		this.channel = channel;
+		this.capacity = bufferSize;
+		this.input = ByteBuffer.allocate( 0 );
+		this.chars = new char[ capacity ];
+	}
+
+	/**
+	 * Creates a scanner reading the UTF-8 encoded bytes between the position and the limit of a buffer.
+	 * Character offsets are relative to the position.
+	 */
+	JsonUtf8Scanner( JsonConfig config, ByteBuffer buffer ) {
+		super( config );
+		this.inputStream = null;
+		this.channel = null;
+		this.capacity = bufferSize;
+		this.input = buffer;
+		this.pos = buffer.position();
+		this.limit = buffer.limit();
+		this.base = -pos;
+		this.chars = new char[ Math.max( 1, Math.min( capacity, limit - pos ) ) ];
+		this.eof = true;
+	}
+
+	/**
+	 * Creates a scanner reading UTF-8 encoded input fed by {@link #feed(ByteBuffer)}.
+	 */
+	JsonUtf8Scanner( JsonConfig config ) {
+		super( config );
+		this.inputStream = null;
+		this.channel = null;
+		this.capacity = bufferSize;
+		this.input = ByteBuffer.allocate( capacity );
+		this.chars = new char[ capacity ];
+		this.fed = true;
+	}
+
+	/**
+	 * Continues a scanner reading a buffer with the bytes between the given offsets, as if they were a new text.
+	 */
+	void reset( int position, int limit ) {
+		this.pos = position;
+		this.limit = limit;
+		this.base = -position;
+		this.lineStart = 0;
+		this.line = 1;
+	}
+
+	/**
+	 * Appends the remaining bytes of the buffer to fed input, discarding the bytes scanned.
+	 */
+	void feed( ByteBuffer bytes ) {
+
+		byte[] array = input.array();
+		int n = bytes.remaining();
+
+		if ( eof )
+			throw new IllegalStateException( "Input has ended" );
+
+		if ( limit - pos + n > array.length ) {
+			input = ByteBuffer.allocate( Math.max( array.length * 2, limit - pos + n ) );
+			System.arraycopy( array, pos, input.array(), 0, limit - pos );
+			array = input.array();
+		} else if ( limit + n > array.length ) {
+			System.arraycopy( array, pos, array, 0, limit - pos );
+		} else {
+			bytes.get( array, limit, n );
+			limit += n;
+			return;
+		}
+
+		base += pos;
+		checked -= pos;
+		limit -= pos;
+		pos = 0;
+
+		bytes.get( array, limit, n );
+		limit += n;
+	}
+
+	/**
+	 * Ends fed input, the scanner reports the end of the input once it has scanned the bytes fed.
+	 */
+	void end() {
+		eof = true;
+	}
+
+	/**
+	 * Whether the input fed since the scanner ran out of input may complete the token it was scanning.
+	 */
+	boolean ready() {
+
+		byte[] array;
+		int b;
+
+		if ( !starved || eof )
+			return true;
+
+		array = input.array();
+		for ( ; checked < limit; checked++ ) {
+			b = array[checked];
+			if ( awaited == 0 || b == awaited ) {
+				starved = false;
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Remembers the current position, to be restored if fed input runs out.
+	 */
+	void save() {
+		savedPos = pos;
+		savedBase = base;
+		savedLine = line;
+		savedLineStart = lineStart;
+		if ( !replay )
+			skipped = 0;
+	}
+
+	/**
+	 * Returns to the saved position, unless a skip has been started since, which is continued or returned again.
+	 */
+	void restore() {
+		if ( skipped != 0 ) {
+			pos = skippedPos;
+			base = skippedBase;
+			line = skippedLine;
+			lineStart = skippedLineStart;
+			replay = true;
+		} else if ( !suspended() ) {
+			pos = savedPos;
+			base = savedBase;
+			line = savedLine;
+			lineStart = savedLineStart;
+		}
+	}
+
+	/**
+	 * Whether a skip ran out of fed input and is continued by the next call to {@link #skip()} or {@link #skipChildren()}.
+	 */
+	boolean suspended() {
+		return skipDepth > 0 || skipString;
+	}
+
+	/**
+	 * Remembers the token a skip of fed input returns, in case the input runs out before the reader is done.
+	 */
+	private int done( int token ) {
+		if ( fed ) {
+			skipped = token;
+			skippedPos = pos;
+			skippedBase = base;
+			skippedLine = line;
+			skippedLineStart = lineStart;
+		}
+		return token;
+	}
+
+	private boolean fill() throws IOException {
+		return fill( 0 );
+	}
+
+	/**
+	 * Discards the scanned bytes and reads more input.
+	 *
+	 * @param awaited for fed input, a byte that must follow for the current token to be completed, zero if not known
+	 * @return false if no more input is available
+	 */
+	private boolean fill( int awaited ) throws IOException {
+
+		int len, requested;
+		byte[] array;
+
+		if ( eof )
+			return false;
+
+		if ( fed ) {
+			this.starved = true;
+			this.awaited = awaited;
+			this.checked = limit;
+			throw Underflow.INSTANCE;
+		}
+
+		if ( channel != null )
+			return map();
+
+		array = input.array();
+
+		if ( capacity != array.length ) {
+			input = ByteBuffer.allocate( capacity );
+			chars = new char[ capacity ];
+			System.arraycopy( array, pos, input.array(), 0, limit - pos );
+			array = input.array();
+			base += pos;
+			limit -= pos;
+			pos = 0;
+		} else if ( pos > 0 ) {
+			System.arraycopy( array, pos, array, 0, limit - pos );
+			base += pos;
+			limit -= pos;
+			pos = 0;
+		}
+
+		requested = array.length - limit;
+		len = inputStream.read( array, limit, requested );
+
+		if ( len == EOF ) {
+			eof = true;
+			return false;
+		}
+
+		limit += len;
+		capacity = adapt( capacity, requested, len );
+
+		return true;
+	}
+
+	/**
+	 * Maps the next window of the file, starting at the first byte not scanned yet.
+	 */
+	private boolean map() throws IOException {
+
+		long size, offset;
+
+		size = channel.size();
+		offset = mapped + pos;
+
+		if ( mapped + limit >= size ) {
+			eof = true;
+			return false;
+		}
+
+		input = channel.map( FileChannel.MapMode.READ_ONLY, offset, Math.min( size - offset, MAPPING_SIZE ) );
+
+		base += pos;
+		mapped = offset;
+		limit = input.limit();
+		pos = 0;
+
+		return true;
+	}
+
+	/**
+	 * Makes sure at least the given number of bytes is available.
+	 */
+	private boolean ensure( int n ) throws IOException {
+		while ( limit - pos < n ) {
+			if ( !fill() )
+				return false;
+		}
+		return true;
+	}
+
+	private int peek() throws IOException {
+		if ( pos == limit && !fill() )
+			return EOF;
+		return input.get( pos );
+	}
+
+	private int read() throws IOException {
+		if ( pos == limit && !fill() )
+			return EOF;
+		return input.get( pos++ );
+	}
+
+	private void mark() {
+		startPosition = base + pos;
+		startLine = line;
+		startColumn = (int) ( startPosition - lineStart ) + 1;
+	}
+
+	@Override
+	int next() throws IOException {
+
+		int c;
+
+		text.setLength( 0 );
+		fraction = 0;
+		exponent = 0;
+
+		c = space();
+		mark();
+
+		if ( c == EOF )
+			return EOF;
+
+		pos++;
+
+		switch ( c ) {
+			case ',':
+			case ':':
+			case '{':
+			case '}':
+			case '[':
+			case ']':
+				text.append( (char) c );
+				return c;
+
+			case '"':
+				scanString();
+				return TOKEN_STRING;
+
+			// no leading zeros
+			case '0':
+				text.append( '0' );
+				c = peek();
+				if ( c == '.' ) {
+					text.append( (char) read() );
+					return scanNumberFraction();
+				} else if ( c == 'e' ) {
+					text.append( (char) read() );
+					return scanNumberExponent();
+				}
+				return TOKEN_INTEGER;
+
+			case '-':
+				text.append( '-' );
+				c = peek();
+				if ( c == '0' ) {
+					text.append( (char) read() );
+					c = peek();
+					if ( c == '.' ) {
+						text.append( (char) read() );
+						return scanNumberFraction();
+					} else if ( c == 'e' ) {
+						text.append( (char) read() );
+						return scanNumberExponent();
+					}
+					return TOKEN_INTEGER;
+				} else if ( c >= '1' && c <= '9' ) {
+					text.append( (char) read() );
+					return scanNumber();
+				}
+				throw error("invalid number (negative without integer part)");
+
+			case '1':case '2': case '3': case '4':
+			case '5':case '6':case '7': case '8': case '9':
+				text.append( (char) c );
+				return scanNumber();
+
+			case 't':
+				if ( read() == 'r' && read() == 'u' && read() == 'e' )
+					return TOKEN_TRUE;
+				throw error( "Illegal content" );
+			case 'f':
+				if ( read() == 'a' && read() == 'l' && read() == 's' && read() == 'e' )
+					return TOKEN_FALSE;
+				throw error( "Illegal content" );
+			case 'n':
+				if ( read() == 'u' && read() == 'l' && read() == 'l' )
+					return TOKEN_NULL;
+				throw error( "Illegal content" );
+
+			default:
+				if ( c < 0 ) {
+					pos--;
+					c = decode();
+					if ( Character.isSupplementaryCodePoint( c ) )
+						c = Character.highSurrogate( c );
+				}
+				throw error( "Illegal content '" + (char) c + "'" );
+		}
+	}
+
+	/**
+	 * Skips white space.
+	 *
+	 * @return the next character, which is not consumed, or {@link #EOF}
+	 */
+	private int space() throws IOException {
+
+		int c;
+
+		do {
+
+			if ( pos == limit && !fill() )
+				return EOF;
+
+			c = input.get( pos );
+
+			if ( c == ' ' || c == '\t' || c == '\r' ) {
+				pos++;
+			} else if ( c == '\n' ) {
+				pos++;
+				line++;
+				lineStart = base + pos;
+			} else {
+				return c;
+			}
+
+		} while ( true );
+	}
+
+	@Override
+	int skip() throws IOException {
+
+		int c;
+
+		// the position following the skip has been restored, input fed since may have moved it
+		if ( replay ) {
+			replay = false;
+			return done( skipped );
+		}
+
+		if ( suspended() ) {
+			c = skipToken;
+		} else {
+			text.setLength( 0 );
+			c = space();
+			if ( c != '"' && c != '{' && c != '[' )
+				return next();
+			mark();
+			pos++;
+			skipToken = c;
+		}
+
+		if ( c == '"' ) {
+			skipString();
+			return done( TOKEN_STRING );
+		}
+
+		if ( skipChildren() != ( c == '{' ? '}' : ']' ) )
+			throw error( c == '{' ? "} expected" : "] expected" );
+		return done( c );
+	}
+
+	@Override
+	int skipChildren() throws IOException {
+
+		int c, depth;
+
+		// the position following the skip has been restored, input fed since may have moved it
+		if ( replay ) {
+			replay = false;
+			return done( skipped );
+		}
+
+		if ( skipDepth > 0 ) {
+			depth = skipDepth;
+			skipDepth = 0;
+		} else {
+			depth = 1;
+			skippedDepth = 1;
+		}
+
+		try {
+
+			if ( skipString )
+				skipString();
+
+			do {
+
+				if ( pos == limit && !fill() ) {
+					mark();
+					throw error( "Unexpected end of input" );
+				}
+
+				c = input.get( pos );
+
+				switch ( c ) {
+					case '"':
+						pos++;
+						skipString();
+						break;
+					case '{':
+					case '[':
+						pos++;
+						enter( ++depth, c );
+						if ( depth > skippedDepth )
+							skippedDepth = depth;
+						break;
+					case '}':
+					case ']':
+						// the kind of the outermost container is checked by the caller
+						if ( depth > 1 && !closes( depth, c ) ) {
+							mark();
+							throw error( c == '}' ? "] expected" : "} expected" );
+						}
+						if ( --depth == 0 ) {
+							mark();
+							pos++;
+							return done( c );
+						}
+						pos++;
+						break;
+					case '\n':
+						pos++;
+						line++;
+						lineStart = base + pos;
+						break;
+					default:
+						pos++;
+						if ( c < 0 )
+							skipped( c );
+				}
+
+			} while ( true );
+
+		} catch ( Underflow e ) {
+			skipDepth = depth;
+			throw e;
+		}
+	}
+
+	private void skipString() throws IOException {
+
+		int c;
+		boolean escaped = skipEscape;
+
+		skipString = false;
+		skipEscape = false;
+
+		try {
+			do {
+
+				if ( pos == limit && !fill() )
+					throw error( "Unterminated string" );
+
+				c = input.get( pos++ );
+
+				if ( escaped ) {
+					// the escaped character is ascii in valid input
+					escaped = false;
+					c = 0;
+				} else if ( c == '\\' ) {
+					escaped = true;
+				} else if ( c < 0 ) {
+					skipped( c );
+				}
+			} while ( c != '"' );
+		} catch ( Underflow e ) {
+			skipString = true;
+			skipEscape = escaped;
+			throw e;
+		}
+	}
+
+	/**
+	 * Accounts for a byte of a multi byte sequence skipped without decoding it.
+	 */
+	private void skipped( int b ) {
+		if ( ( b & 0xc0 ) == 0x80 )
+			base--;
+		else if ( ( b & 0xf8 ) == 0xf0 )
+			base++;
+	}
+
+	private int scanNumber() throws IOException {
+		int c;
+		do {
+			c = peek();
+			if ( !( c >= '0' && c <= '9' ) ) {
+				if ( c == '.' ) {
+					text.append( (char) read() );
+					return scanNumberFraction();
+				}
+				if ( c == 'e' || c == 'E' ) {
+					text.append( (char) read() );
+					return scanNumberExponent();
+				}
+				return TOKEN_INTEGER;
+			}
+			text.append( (char) c );
+			pos++;
+		} while ( true );
+	}
+
+	private int scanNumberFraction() throws IOException {
+
+		int c;
+
+		fraction = text.length();
+		c = peek();
+
+		if ( c < '0' || c > '9' )
+			throw error( "Fractional digits expected" );
+
+		do {
+			text.append( (char) c );
+			pos++;
+			c = peek();
+		} while ( c >= '0' && c <= '9' );
+
+		if ( c == 'e' || c == 'E' ) {
+			text.append( (char) read() );
+			return scanNumberExponent();
+		}
+
+		return TOKEN_FRACTIONAL_NUMBER;
+	}
+
+	private int scanNumberExponent() throws IOException {
+
+		int c;
+
+		exponent = text.length();
+		c = peek();
+
+		if ( c == '-' || c == '+' ) {
+			text.append( (char) read() );
+			c = peek();
+		}
+
+		if ( c < '0' || c > '9' )
+			throw error( "Exponential digits expected" );
+
+		do {
+			text.append( (char) c );
+			pos++;
+			c = peek();
+		} while ( c >= '0' && c <= '9' );
+
+		return TOKEN_FRACTIONAL_NUMBER;
+	}
+
+	private void scanString() throws IOException {
+
+		int c, p, l, n;
+		char[] chars;
+
+		do {
+
+			// copy the run of plain ascii characters
+			chars = this.chars;
+			p = pos;
+			l = Math.min( limit, pos + chars.length );
+			n = 0;
+			while ( p < l ) {
+				c = input.get( p );
+				if ( c < 0x20 || c == '"' || c == '\\' )
+					break;
+				chars[ n++ ] = (char) c;
+				p++;
+			}
+			text.append( chars, 0, n );
+			pos = p;
+
+			if ( p == l ) {
+				if ( p == limit && !fill( '"' ) )
+					throw error( "Unterminated string" );
+				continue;
+			}
+
+			c = input.get( pos );
+
+			if ( c == '"' ) {
+				pos++;
+				return;
+			} else if ( c == '\\' ) {
+				pos++;
+				c = read();
+				switch ( c ) {
+					case '"': text.append( '"' ); break;
+					case '\\': text.append( '\\' ); break;
+					case '/': text.append( '/' ); break;
+					case 'b': text.append( '\b' ); break;
+					case 'f': text.append( '\f' ); break;
+					case 'n': text.append( '\n' ); break;
+					case 'r': text.append( '\r' ); break;
+					case 't': text.append( '\t' ); break;
+					case 'u':
+					{
+						int v = 0;
+						v = xdigit() << 12;
+						v += xdigit() << 8;
+						v += xdigit() << 4;
+						v += xdigit();
+						text.appendCodePoint( v );
+						break;
+					}
+					default:
+						throw error( "Illegal escape character" );
+				}
+			} else if ( c >= 0 ) {
+				throw error( "Control character in string" );
+			} else {
+				text.appendCodePoint( decode() );
+			}
+
+		} while ( true );
+	}
+
+	/**
+	 * Decodes the multi byte sequence at the current position.
+	 */
+	private int decode() throws IOException {
+
+		int b, n, cp, cc;
+
+		b = input.get( pos ) & 0xff;
+
+		if ( b >= 0xc2 && b <= 0xdf ) {
+			n = 2;
+			cp = b & 0x1f;
+		} else if ( b >= 0xe0 && b <= 0xef ) {
+			n = 3;
+			cp = b & 0x0f;
+		} else if ( b >= 0xf0 && b <= 0xf4 ) {
+			n = 4;
+			cp = b & 0x07;
+		} else {
+			throw new MalformedInputException( 1 );
+		}
+
+		if ( !ensure( n ) )
+			throw new MalformedInputException( limit - pos );
+
+		for ( int i = 1; i < n; i++ ) {
+			cc = input.get( pos + i );
+			if ( ( cc & 0xc0 ) != 0x80 )
+				throw new MalformedInputException( i );
+			cp = ( cp << 6 ) | ( cc & 0x3f );
+		}
+
+		// overlong encodings, surrogates and code points beyond the unicode range
+		if ( n == 3 && ( cp < 0x800 || Character.isSurrogate( (char) cp ) ) || n == 4 && ( cp < 0x10000 || cp > Character.MAX_CODE_POINT ) )
+			throw new MalformedInputException( n );
+
+		pos += n;
+		base -= n - Character.charCount( cp );
+
+		return cp;
+	}
+
+	private int xdigit() throws IOException {
+		int c = read();
+		if ( c >= '0' && c <= '9' ) return c - '0';
+		if ( c >= 'a' && c <= 'f' ) return 10 + c - 'a';
+		if ( c >= 'A' && c <= 'F' ) return 10 + c - 'A';
+		throw error( "Illegal content" );
+	}
+
+	/**
+	 * Thrown when fed input runs out within a token. Carries no stack trace, as it is part of the regular flow.
+	 */
+	static final class Underflow extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		static final Underflow INSTANCE = new Underflow();
+
+		private Underflow() {
+			super( null, null, false, false );
+		}
+
+	}
+
+}
@@ -53,13 +53,13 @@ public abstract class JsonValue {
 		for ( Object object : in ) {
 			list.add( createFromObject(check, object) );
 		}
-		return new JsonArray(list);
+		return new JsonArray( JsonPrimitiveList.of( list ) );
 	}
 
 	private static JsonObject createFromMap( Deque<Object> check, Map<String, Object> in ) {
 		if ( check.contains( in ) )
 			throw new IllegalArgumentException( "cyclic object graph" );
-		Map<String,JsonValue> map = new HashMap<>();
+		JsonObjectMap map = new JsonObjectMap( in.size() );
 		check.push( in );
 		for ( Map.Entry<String, Object> entry : in.entrySet() ) {
 			map.put( entry.getKey(), create( entry.getValue() ) );
@@ -237,6 +237,7 @@ public abstract class JsonValue {
 	 *
 	 * @param path the path to interpret
 	 * @return the json value if found, null otherwise
+	 * @see JsonProjection
 	 */
 	public final JsonValue find( String path ) {
 		return findIn( this, path );
@@ -16,6 +16,25 @@ public interface JsonWriter {
 
 	void write( String string );
 	void write( Number number );
+
+	/**
+	 * Writes a number, its digits are formatted without boxing the value or creating a string.
+	 */
+	default void write( long number ) {
+		write( (Number) number );
+	}
+
+	default void write( int number ) {
+		write( (long) number );
+	}
+
+	/**
+	 * Writes a number with the fewest digits that read back as the same double, non-finite values are written as their
+	 * {@link Double#toString(double) string representation}.
+	 */
+	default void write( double number ) {
+		write( (Number) number );
+	}
 	void write( boolean bool );
 
 	void writeBeginArray();
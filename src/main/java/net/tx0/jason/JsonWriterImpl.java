@@ -1,227 +1,390 @@
 package net.tx0.jason;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Writer;
-import java.util.ArrayDeque;
-import java.util.Deque;
-import java.util.NoSuchElementException;
+import java.util.Arrays;
 
 final class JsonWriterImpl implements JsonWriter {
 
-    // TODO Implementation is inefficient, i.e. outer class access
-    // TODO layout is not the prettiest when consisting of small arrays
+    // states naming what may be written next
+    private static final byte VALUE = 0;
+    private static final byte ARRAY_FIRST_ELEMENT = 1;
+    private static final byte ARRAY_NEXT_ELEMENT = 2;
+    private static final byte OBJECT_FIRST_MEMBER = 3;
+    private static final byte OBJECT_NEXT_MEMBER = 4;
+    private static final byte MEMBER_VALUE = 5;
+    private static final byte END = 6;
+
+    // a line break followed by the indentation of up to 32 levels
+    private static final char[] LINE = new char[1 + 4 * 32];
+
+    static {
+        Arrays.fill(LINE, ' ');
+        LINE[0] = '\n';
+    }
 
-    private abstract class Context {
-        protected int level;
+    // the character following the backslash for characters that need to be escaped, zero for all others
+    private static final char[] ESCAPES = new char[128];
+
+    static {
+        for ( int c = 0; c < 0x20; c++ )
+            ESCAPES[c] = 'u';
+        ESCAPES['"'] = '"';
+        ESCAPES['\\'] = '\\';
+        ESCAPES['\n'] = 'n';
+        ESCAPES['\r'] = 'r';
+        ESCAPES['\t'] = 't';
+        ESCAPES['\b'] = 'b';
+        ESCAPES['\f'] = 'f';
+    }
 
-        protected final void writeIndent( Writer writer, int lvl ) throws IOException {
-            if ( !layout )
-                return;
-            for ( int i = 0; i < lvl; i++ )
-                writer.write("    ");
-        }
+    private final Writer writer;
+    private final OutputStream outputStream;
+    private final boolean layout;
+    // output is collected here before it is passed to the writer, or encoded for the output stream
+    private final char[] buffer;
+    private int count;
+    // receives the UTF-8 encoded buffer when writing to an output stream
+    private final byte[] bytes;
+    // numbers are formatted here before they are appended
+    private final char[] digits = new char[JsonNumberFormat.MAXIMUM_LENGTH];
+    // the current state and the states to return to when the enclosing containers end
+    private byte state = VALUE;
+    private byte[] states;
+    private int depth;
+    // the maximum length of arrays kept on one line, zero if arrays are not inlined
+    private final int inlineArrayLength;
+    // buffer position of the array currently kept on one line, -1 if there is none
+    private int inline = -1;
+    // the ends of its elements relative to the bracket, and the elements copied when the array is spread across lines
+    private final int[] inlineEnds;
+    private int inlineElements;
+    private final char[] inlineChars;
 
-        public void writeStartObject() throws IOException {
-            throw new JsonException("Object not permitted here");
-        }
+    JsonWriterImpl( JsonConfig config, Writer writer ) {
+        this(config, writer, null);
+    }
 
-        public void writeStartArray() throws IOException {
-            throw new JsonException("Array not permitted here");
-        }
+    /**
+     * Creates a writer encoding its output as UTF-8 itself, writing to the stream in blocks.
+     */
+    JsonWriterImpl( JsonConfig config, OutputStream outputStream ) {
+        this(config, null, outputStream);
+    }
 
-        public void writeMember( String name ) throws IOException {
-            throw new JsonException("Attribute not permitted here");
-        }
+    private JsonWriterImpl( JsonConfig config, Writer writer, OutputStream outputStream ) {
+        this.layout = config.isLayout();
+        this.states = new byte[32];
+        this.inlineArrayLength = layout ? config.getInlineArrayLength() : 0;
+        this.inlineEnds = inlineArrayLength > 0 ? new int[inlineArrayLength / 3 + 1] : null;
+        this.inlineChars = inlineArrayLength > 0 ? new char[inlineArrayLength] : null;
+        this.writer = writer;
+        this.outputStream = outputStream;
+        // an array to be kept on one line has to fit into the buffer
+        this.buffer = new char[Math.max(config.getOutputBufferSize(), inlineArrayLength)];
+        // no character takes more than three bytes, supplementary characters take four for two characters
+        this.bytes = outputStream != null ? new byte[buffer.length * 3] : null;
+    }
 
-        public void writeScalar( String string ) throws IOException {
-            throw new JsonException("Scalar not permitted here");
-        }
+    private void append( char c ) throws IOException {
+        if ( count == buffer.length )
+            flushBuffer(false);
+        buffer[count++] = c;
+    }
 
-        public void writeEndObject() throws IOException {
-            throw new JsonException("Not within an object");
+    private void append( String string ) throws IOException {
+        int l = string.length();
+        if ( l <= buffer.length - count ) {
+            string.getChars(0, l, buffer, count);
+            count += l;
+            return;
         }
-
-        public void writeEndArray() throws IOException {
-            throw new JsonException("Not within an array");
+        for ( int i = 0, n; i < l; i += n ) {
+            if ( count == buffer.length )
+                flushBuffer(false);
+            n = Math.min(l - i, buffer.length - count);
+            string.getChars(i, i + n, buffer, count);
+            count += n;
         }
+    }
 
-        public void writeEndText() {
-            throw new JsonException("Unbalanced text");
+    private void append( char[] chars, int offset, int length ) throws IOException {
+        if ( length <= buffer.length - count ) {
+            System.arraycopy(chars, offset, buffer, count, length);
+            count += length;
+            return;
+        }
+        for ( int i = 0, n; i < length; i += n ) {
+            if ( count == buffer.length )
+                flushBuffer(false);
+            n = Math.min(length - i, buffer.length - count);
+            System.arraycopy(chars, offset + i, buffer, count, n);
+            count += n;
         }
+    }
 
+    /**
+     * Appends a scalar, strings to be quoted are escaped while they are copied into the buffer.
+     */
+    private void append( String string, boolean quote ) throws IOException {
+        if ( !quote )
+            append(string);
+        else if ( string == null )
+            append("null");
+        else
+            appendQuoted(string);
     }
 
-    private class TextContext extends Context {
-        int state = 0;
+    private void appendQuoted( String string ) throws IOException {
 
-        @Override
-        public void writeStartObject() throws IOException {
-            if ( state != 0 )
-                throw new JsonException("Only one text content permitted");
-            writer.write('{');
-            if ( layout )
-                writer.write('\n');
-            state = 1;
-        }
+        char[] buffer = this.buffer;
+        int i = 0, l = string.length(), n, end;
+        char c, escape;
 
-        @Override
-        public void writeStartArray() throws IOException {
-            if ( state != 0 )
-                throw new JsonException("Only one text content permitted");
-            writer.write('[');
-            if ( layout )
-                writer.write('\n');
-            state = 1;
-        }
+        append('"');
 
-        public void writeEndText() {
+        while ( i < l ) {
+
+            if ( count == buffer.length )
+                flushBuffer(false);
+
+            // copy characters until one needs to be escaped or the buffer is full
+            n = count;
+            end = Math.min(l, i + buffer.length - n);
+            while ( i < end ) {
+                c = string.charAt(i);
+                if ( c < ESCAPES.length && ESCAPES[c] != 0 )
+                    break;
+                buffer[n++] = c;
+                i++;
+            }
+            count = n;
+
+            if ( i == end )
+                continue;
+
+            c = string.charAt(i++);
+            escape = ESCAPES[c];
+            append('\\');
+            append(escape);
+            if ( escape == 'u' ) {
+                append('0');
+                append('0');
+                append(hexDigit(c >> 4));
+                append(hexDigit(c & 0x0f));
+            }
         }
 
-        public void writeScalar( String string ) throws IOException {
-            if ( state != 0 )
-                throw new JsonException("Only one text content permitted");
-            // super.writeScalar throws / text previously needed to be complex
-            writer.write(string);
-            state = 1;
+        append('"');
+    }
+
+    /**
+     * Passes the buffered output on.
+     *
+     * @param last whether no more output follows, otherwise a high surrogate ending the buffer is kept
+     *             to be encoded together with its low surrogate
+     */
+    private void flushBuffer( boolean last ) throws IOException {
+        if ( writer != null ) {
+            writer.write(buffer, 0, count);
+            count = 0;
+        } else {
+            encode(last);
         }
     }
 
-    private class ObjectContext extends Context {
+    private void encode( boolean last ) throws IOException {
+
+        char[] buffer = this.buffer;
+        byte[] bytes = this.bytes;
+        int i = 0, n = 0, end = count, c, cp;
 
-        int state, index;
+        if ( !last && end > 0 && Character.isHighSurrogate(buffer[end - 1]) )
+            end--;
 
-        @Override
-        public void writeEndObject() throws IOException {
-            if ( state == 1 )
-                throw new JsonException("Missing member value");
-            if ( index > 0 && layout ) {
-                writer.write('\n');
+        while ( i < end ) {
+
+            // ascii needs no treatment
+            while ( i < end && ( c = buffer[i] ) < 0x80 ) {
+                bytes[n++] = (byte) c;
+                i++;
             }
-            writeIndent(writer, level - 1);
-            writer.write('}');
-        }
 
-        @Override
-        public void writeMember( String name ) throws IOException {
-            if ( state == 1 )
-                throw new JsonException("Missing member value");
-            if ( index > 0 ) {
-                writer.write(',');
-                if ( layout ) {
-                    writer.write('\n');
-                }
+            if ( i == end )
+                break;
+
+            c = buffer[i++];
+
+            if ( c < 0x800 ) {
+                bytes[n++] = (byte) ( 0xc0 | ( c >> 6 ) );
+                bytes[n++] = (byte) ( 0x80 | ( c & 0x3f ) );
+            } else if ( !Character.isSurrogate((char) c) ) {
+                bytes[n++] = (byte) ( 0xe0 | ( c >> 12 ) );
+                bytes[n++] = (byte) ( 0x80 | ( ( c >> 6 ) & 0x3f ) );
+                bytes[n++] = (byte) ( 0x80 | ( c & 0x3f ) );
+            } else if ( Character.isHighSurrogate((char) c) && i < end && Character.isLowSurrogate(buffer[i]) ) {
+                cp = Character.toCodePoint((char) c, buffer[i++]);
+                bytes[n++] = (byte) ( 0xf0 | ( cp >> 18 ) );
+                bytes[n++] = (byte) ( 0x80 | ( ( cp >> 12 ) & 0x3f ) );
+                bytes[n++] = (byte) ( 0x80 | ( ( cp >> 6 ) & 0x3f ) );
+                bytes[n++] = (byte) ( 0x80 | ( cp & 0x3f ) );
+            } else {
+                // unpaired surrogates are replaced, like an OutputStreamWriter does
+                bytes[n++] = '?';
             }
-            writeIndent(writer, level);
-            writer.write(toScalar(name));
-            writer.write(':');
-            if ( layout )
-                writer.write(' ');
-            state = 1;
-            index++;
         }
 
-        @Override
-        public void writeStartObject() throws IOException {
-            if ( state == 0 )
-                throw new JsonException("No value expected");
-            writer.write('{');
-            if ( layout )
-                writer.write('\n');
-            state = 0;
-        }
+        outputStream.write(bytes, 0, n);
 
-        @Override
-        public void writeStartArray() throws IOException {
-            if ( state == 0 )
-                throw new JsonException("No value expected");
-            writer.write('[');
-            if ( layout )
-                writer.write('\n');
-            state = 0;
-        }
+        count -= end;
+        if ( count > 0 )
+            buffer[0] = buffer[end];
+    }
+
+    /**
+     * Writes the indentation of the given level, preceded by a line break if requested, when producing layout.
+     */
+    private void writeIndent( int level, boolean line ) throws IOException {
+        int offset = line ? 0 : 1, n = 1 + 4 * level - offset;
+        if ( !layout )
+            return;
+        // deeper levels take several copies of the table
+        while ( n > LINE.length - offset ) {
+            append(LINE, offset, LINE.length - offset);
+            n -= LINE.length - offset;
+            offset = 1;
+        }
+        append(LINE, offset, n);
+    }
 
-        @Override
-        public void writeScalar( String string ) throws IOException {
-            if ( state == 0 )
+    /**
+     * Checks that a value is permitted and writes what precedes it, the caller appends the value.
+     *
+     * @param length the number of characters of a scalar, negative for objects and arrays
+     */
+    private void beginValue( int length ) throws IOException {
+        switch ( state ) {
+            case VALUE:
+                state = END;
+                break;
+            case ARRAY_FIRST_ELEMENT:
+            case ARRAY_NEXT_ELEMENT:
+                if ( inline >= 0 ) {
+                    // the value and the closing bracket still fit on the line
+                    if ( length >= 0 && count - inline + length + ( state == ARRAY_FIRST_ELEMENT ? 1 : 3 ) <= inlineArrayLength ) {
+                        if ( state == ARRAY_NEXT_ELEMENT ) {
+                            inlineEnds[inlineElements++] = count - inline;
+                            append(',');
+                            append(' ');
+                        }
+                        state = ARRAY_NEXT_ELEMENT;
+                        break;
+                    }
+                    breakInline();
+                }
+                if ( state == ARRAY_NEXT_ELEMENT )
+                    append(',');
+                writeIndent(depth, state == ARRAY_NEXT_ELEMENT);
+                state = ARRAY_NEXT_ELEMENT;
+                break;
+            case MEMBER_VALUE:
+                state = OBJECT_NEXT_MEMBER;
+                break;
+            case END:
+                throw new JsonException("Only one text content permitted");
+            default:
                 throw new JsonException("No value expected");
-            writer.write(string);
-            state = 0;
         }
-
     }
 
-    private class ArrayContext extends Context {
-        int index = 0;
+    /**
+     * Spreads the elements of the array kept on one line so far across lines.
+     */
+    private void breakInline() throws IOException {
 
-        @Override
-        public void writeEndArray() throws IOException {
-            if ( index > 0 && layout ) {
-                writer.write('\n');
-            }
-            writeIndent(writer, level - 1);
-            writer.write(']');
-        }
+        int start = inline + 1, length = count - start, end;
 
-        @Override
-        public void writeStartObject() throws IOException {
-            prepareWrite();
-            writer.write('{');
-            if ( layout )
-                writer.write('\n');
-            index++;
-        }
-
-        @Override
-        public void writeStartArray() throws IOException {
-            prepareWrite();
-            writer.write('[');
-            if ( layout )
-                writer.write('\n');
-            index++;
-        }
+        inline = -1;
+        System.arraycopy(buffer, start, inlineChars, 0, length);
+        count = start;
+        append('\n');
+        if ( length == 0 )
+            return;
 
-        @Override
-        public void writeScalar( String string ) throws IOException {
-            prepareWrite();
-            writer.write(string);
-            index++;
+        for ( int i = 0, j = 0; i <= inlineElements; i++, j = end + 2 ) {
+            end = i < inlineElements ? inlineEnds[i] - 1 : length;
+            if ( i > 0 )
+                append(',');
+            writeIndent(depth, i > 0);
+            append(inlineChars, j, end - j);
         }
+    }
 
-        private void prepareWrite() throws IOException {
-            if ( index > 0 ) {
-                writer.write(',');
-                if ( layout )
-                    writer.write('\n');
+    /**
+     * Enters a container, the current state is resumed when it ends.
+     */
+    private void begin( char bracket, byte first ) throws IOException {
+        beginValue(-1);
+        if ( depth == states.length )
+            states = Arrays.copyOf(states, depth * 2);
+        states[depth++] = state;
+        state = first;
+        if ( first == ARRAY_FIRST_ELEMENT && inlineArrayLength > 0 ) {
+            // the array is kept in the buffer until it is known whether it fits on one line
+            if ( buffer.length - count < inlineArrayLength )
+                flushBuffer(false);
+            if ( buffer.length - count >= inlineArrayLength ) {
+                inline = count;
+                inlineElements = 0;
             }
-            writeIndent(writer, level);
         }
+        append(bracket);
+        if ( layout && inline < 0 )
+            append('\n');
     }
 
-    private final Writer writer;
-    private final boolean layout;
-    // keeps track of the current context
-    private final Deque<Context> nodes = new ArrayDeque<Context>();
-
-    JsonWriterImpl( JsonConfig config, Writer writer ) {
-        this.layout = config.isLayout();
-        this.writer = writer;
-        this.nodes.push(new TextContext());
+    private void end( char bracket ) throws IOException {
+        if ( inline >= 0 )
+            inline = -1;
+        else
+            writeIndent(depth - 1, state != ARRAY_FIRST_ELEMENT && state != OBJECT_FIRST_MEMBER);
+        append(bracket);
+        state = states[--depth];
+        endValue();
     }
 
-    private Context currentNode() {
-        try {
-            return nodes.element();
-        } catch ( NoSuchElementException e ) {
-            throw new JsonException("Writing beyond text");
-        }
+    /**
+     * Passes the output on to a writer once the text is complete, so it is not held back until the writer is closed.
+     * Output encoded for a stream is kept until the buffer is full.
+     */
+    private void endValue() throws IOException {
+        if ( state == END && writer != null && count > 0 )
+            flushBuffer(false);
     }
 
-    // methods just delegate to the current context
+    /**
+     * The length of the string once quoted and escaped, or a length exceeding inline arrays.
+     */
+    private int quotedLength( String string ) {
+        int n = 2;
+        char c;
+        for ( int i = 0, l = string.length(); i < l && n <= inlineArrayLength; i++ ) {
+            c = string.charAt(i);
+            if ( c >= ESCAPES.length || ESCAPES[c] == 0 )
+                n++;
+            else
+                n += ESCAPES[c] == 'u' ? 6 : 2;
+        }
+        return n;
+    }
 
     @Override
     public void writeNull() {
         try {
-            currentNode().writeScalar("null");
+            beginValue(4);
+            append("null");
+            endValue();
         } catch ( IOException e ) {
             throw JsonException.wrap(e);
         }
@@ -230,7 +393,9 @@ final class JsonWriterImpl implements JsonWriter {
     @Override
     public void write( String string ) {
         try {
-            currentNode().writeScalar(toScalar(string));
+            beginValue(inline < 0 ? 0 : string == null ? 4 : quotedLength(string));
+            append(string, true);
+            endValue();
         } catch ( IOException e ) {
             throw JsonException.wrap(e);
         }
@@ -239,7 +404,10 @@ final class JsonWriterImpl implements JsonWriter {
     @Override
     public void write( boolean bool ) {
         try {
-            currentNode().writeScalar(toScalar(bool));
+            String scalar = toScalar(bool);
+            beginValue(scalar.length());
+            append(scalar);
+            endValue();
         } catch ( IOException e ) {
             throw JsonException.wrap(e);
         }
@@ -247,8 +415,48 @@ final class JsonWriterImpl implements JsonWriter {
 
     @Override
     public void write( Number number ) {
+        if ( number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte ) {
+            write(number.longValue());
+            return;
+        }
+        if ( number instanceof Double ) {
+            write(number.doubleValue());
+            return;
+        }
+        try {
+            String scalar = toScalar(number);
+            beginValue(scalar.length());
+            append(scalar);
+            endValue();
+        } catch ( IOException e ) {
+            throw JsonException.wrap(e);
+        }
+    }
+
+    @Override
+    public void write( long number ) {
+        try {
+            int length = JsonNumberFormat.format(number, digits, 0);
+            beginValue(length);
+            append(digits, 0, length);
+            endValue();
+        } catch ( IOException e ) {
+            throw JsonException.wrap(e);
+        }
+    }
+
+    @Override
+    public void write( int number ) {
+        write((long) number);
+    }
+
+    @Override
+    public void write( double number ) {
         try {
-            currentNode().writeScalar(toScalar(number));
+            int length = JsonNumberFormat.format(number, digits, 0);
+            beginValue(length);
+            append(digits, 0, length);
+            endValue();
         } catch ( IOException e ) {
             throw JsonException.wrap(e);
         }
@@ -257,10 +465,7 @@ final class JsonWriterImpl implements JsonWriter {
     @Override
     public void writeBeginArray() {
         try {
-            currentNode().writeStartArray();
-            ArrayContext n = new ArrayContext();
-            n.level = nodes.size();
-            nodes.push(n);
+            begin('[', ARRAY_FIRST_ELEMENT);
         } catch ( IOException e ) {
             throw JsonException.wrap(e);
         }
@@ -268,9 +473,10 @@ final class JsonWriterImpl implements JsonWriter {
 
     @Override
     public void writeEndArray() {
+        if ( state != ARRAY_FIRST_ELEMENT && state != ARRAY_NEXT_ELEMENT )
+            throw new JsonException("Not within an array");
         try {
-            currentNode().writeEndArray();
-            nodes.pop();
+            end(']');
         } catch ( IOException e ) {
             throw JsonException.wrap(e);
         }
@@ -279,10 +485,7 @@ final class JsonWriterImpl implements JsonWriter {
     @Override
     public void writeStartObject() {
         try {
-            currentNode().writeStartObject();
-            ObjectContext n = new ObjectContext();
-            n.level = nodes.size();
-            nodes.push(n);
+            begin('{', OBJECT_FIRST_MEMBER);
         } catch ( IOException e ) {
             throw JsonException.wrap(e);
         }
@@ -290,9 +493,12 @@ final class JsonWriterImpl implements JsonWriter {
 
     @Override
     public void writeEndObject() {
+        if ( state == MEMBER_VALUE )
+            throw new JsonException("Missing member value");
+        if ( state != OBJECT_FIRST_MEMBER && state != OBJECT_NEXT_MEMBER )
+            throw new JsonException("Not within an object");
         try {
-            currentNode().writeEndObject();
-            nodes.pop();
+            end('}');
         } catch ( IOException e ) {
             throw JsonException.wrap(e);
         }
@@ -300,8 +506,19 @@ final class JsonWriterImpl implements JsonWriter {
 
     @Override
     public void writeMember( String name ) {
+        if ( state == MEMBER_VALUE )
+            throw new JsonException("Missing member value");
+        if ( state != OBJECT_FIRST_MEMBER && state != OBJECT_NEXT_MEMBER )
+            throw new JsonException("Attribute not permitted here");
         try {
-            currentNode().writeMember(name);
+            if ( state == OBJECT_NEXT_MEMBER )
+                append(',');
+            writeIndent(depth, state == OBJECT_NEXT_MEMBER);
+            append(name, true);
+            append(':');
+            if ( layout )
+                append(' ');
+            state = MEMBER_VALUE;
         } catch ( IOException e ) {
             throw JsonException.wrap(e);
         }
@@ -317,7 +534,10 @@ final class JsonWriterImpl implements JsonWriter {
         }
 
         try {
-            writer.write(layout);
+            if ( inline >= 0 )
+                breakInline();
+            append(layout);
+            endValue();
         } catch ( IOException e ) {
             throw JsonException.wrap(e);
         }
@@ -337,9 +557,14 @@ final class JsonWriterImpl implements JsonWriter {
 
     @Override
     public void close() {
-        currentNode().writeEndText();
+        if ( depth > 0 )
+            throw new JsonException("Unbalanced text");
         try {
-            writer.flush();
+            flushBuffer(true);
+            if ( writer != null )
+                writer.flush();
+            else
+                outputStream.flush();
         } catch ( IOException e ) {
             throw JsonException.wrap(e);
         }
@@ -357,51 +582,4 @@ final class JsonWriterImpl implements JsonWriter {
     private static final String toScalar( boolean value ) {
         return value ? "true" : "false";
     }
-
-    protected static final String toScalar( String value ) {
-        StringBuilder writer = new StringBuilder();
-        if ( value == null ) {
-            writer.append("null");
-        } else {
-            writer.append('"');
-            char c;
-            int l = value.length();
-            for ( int i = 0; i < l; i++ ) {
-                c = value.charAt(i);
-                if ( c == '"' || c == '\\' ) {
-                    writer.append('\\');
-                    writer.append(c);
-                } else if ( c < 0x20 ) {
-                    writer.append('\\');
-                    switch ( c ) {
-                        case '\n':
-                            writer.append('n');
-                            break;
-                        case '\r':
-                            writer.append('r');
-                            break;
-                        case '\t':
-                            writer.append('t');
-                            break;
-                        case '\b':
-                            writer.append('b');
-                            break;
-                        case '\f':
-                            writer.append('f');
-                            break;
-                        default:
-                            writer.append('u');
-                            writer.append(hexDigit(( ( (int) c ) >> 12 ) & 0x0f));
-                            writer.append(hexDigit(( ( (int) c ) >> 8 ) & 0x0f));
-                            writer.append(hexDigit(( ( (int) c ) >> 4 ) & 0x0f));
-                            writer.append(hexDigit(( ( (int) c ) >> 0 ) & 0x0f));
-                    }
-                } else {
-                    writer.append(c);
-                }
-            }
-            writer.append('"');
-        }
-        return writer.toString();
-    }
 }
@@ -2,8 +2,19 @@ package net.tx0.json;
 
 import net.tx0.jason.*;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -95,4 +106,435 @@ public class JsonTest {
         assertNotNull(val.asObject().getObject(""));
     }
 
+    @Test
+    public void parseMultiByteString() {
+        byte[] bytes = "[\"\u00e4\u20ac\ud83d\ude00\", \"\\u00e4\"]".getBytes(StandardCharsets.UTF_8);
+        JsonValue val = Json.deserialize(null, bytes);
+        assertEquals("\u00e4\u20ac\ud83d\ude00", val.asArray().getString(0));
+        assertEquals("\u00e4", val.asArray().getString(1));
+        val = Json.deserialize(Json.createReader(new ByteArrayInputStream(bytes)));
+        assertEquals("\u00e4\u20ac\ud83d\ude00", val.asArray().getString(0));
+    }
+
+    @Test
+    public void parseUtf16() {
+        JsonReader reader = Json.createReader(new ByteArrayInputStream("[\"\u00e4\"]".getBytes(StandardCharsets.UTF_16BE)));
+        assertEquals("\u00e4", Json.deserialize(reader).asArray().getString(0));
+        // a truncated character at the end is an error, not dropped
+        byte[] bytes = Arrays.copyOf("[1] ".getBytes(StandardCharsets.UTF_16LE), 7);
+        assertThrows(JsonException.class, ()-> Json.deserialize(Json.createReader(new ByteArrayInputStream(bytes))));
+    }
+
+    @Test
+    public void testErrorLocation() {
+        byte[] bytes = "[\n  \"\u00e4\ud83d\ude00\", x ]".getBytes(StandardCharsets.UTF_8);
+        JsonSyntaxException e = assertThrows(JsonSyntaxException.class, ()-> Json.deserialize(null, bytes));
+        assertEquals(2, e.getLocation().getLine());
+        assertEquals(10, e.getLocation().getColumn());
+        assertEquals(11, e.getLocation().getPosition());
+        e = assertThrows(JsonSyntaxException.class, ()-> Json.deserialize(Json.createReader(new ByteArrayInputStream(bytes))));
+        assertEquals(10, e.getLocation().getColumn());
+        assertEquals(11, e.getLocation().getPosition());
+
+        // multi-byte characters count as one, surrogate pairs as two, after the end of a buffer too
+        JsonConfig config = new JsonConfigBuilder().setInputBufferSize(16).build();
+        byte[] wide = "{\"\u20ac\u20ac\u20ac\u20ac\u20ac\": \"\u00e4\u00e4\ud83d\ude00\", \"\u00e4\" 1 }".getBytes(StandardCharsets.UTF_8);
+        e = assertThrows(JsonSyntaxException.class, ()-> Json.deserialize(Json.createReader(config, new ByteArrayInputStream(wide))));
+        assertEquals(1, e.getLocation().getLine());
+        assertEquals(23, e.getLocation().getColumn());
+        assertEquals(22, e.getLocation().getPosition());
+        e = assertThrows(JsonSyntaxException.class, ()-> Json.deserialize(config, new String(wide, StandardCharsets.UTF_8)));
+        assertEquals(23, e.getLocation().getColumn());
+        assertEquals(22, e.getLocation().getPosition());
+    }
+
+    @Test
+    public void testBufferSizes() {
+        JsonArray array = new JsonArray();
+        for ( int i = 0; i < 1000; i++ ) {
+            array.add( "\u00e4" + i );
+            array.add( i * 0.5 );
+            array.add( i % 2 == 0 );
+        }
+        String text = Json.serialize( array );
+        JsonConfig config = new JsonConfigBuilder().setInputBufferSize( 16 ).setAdaptiveInputBuffers( 256 ).setOutputBufferSize( 16 ).build();
+        assertEquals( text, Json.serialize( config, Json.deserialize( config, text ) ) );
+        assertEquals( text, Json.serialize( config, Json.deserialize( Json.createReader( config, new StringReader( text ) ) ) ) );
+    }
+
+    @Test
+    public void testMappedFile( @TempDir File dir ) throws IOException {
+        JsonConfig config = new JsonConfigBuilder().setInputBufferSize( 16 ).setNoAdaptiveInputBuffers().setMemoryMappedFiles().build();
+        String text = "{ \"name\": \"\u00e4\u20ac\", \"values\": [ 1, 2.5, true, null ] }";
+        File file = new File( dir, "test.json" );
+        Files.write( file.toPath(), text.getBytes( StandardCharsets.UTF_8 ) );
+        assertEquals( Json.serialize( Json.deserialize( text ) ), Json.serialize( Json.deserialize( config, file ) ) );
+        Files.write( file.toPath(), text.getBytes( StandardCharsets.UTF_16LE ) );
+        assertEquals( Json.serialize( Json.deserialize( text ) ), Json.serialize( Json.deserialize( config, file ) ) );
+    }
+
+    @Test
+    public void testParallelParsing( @TempDir File dir ) throws IOException {
+        JsonConfig config = new JsonConfigBuilder().setNoLayout().setParallelParsing( 1 ).build();
+        StringBuilder text = new StringBuilder( "[" );
+        for ( int i = 0; i < 20000; i++ )
+            text.append( i > 0 ? ", " : "" ).append( "{\"id\": " ).append( i ).append( ", \"name\": \"a,]\\\"" ).append( i ).append( "\", \"tags\": [\"\u00e4\", {}]}" );
+        byte[] bytes = text.append( "]" ).toString().getBytes( StandardCharsets.UTF_8 );
+        String expected = Json.serialize( config, Json.deserialize( text.toString() ) );
+
+        assertEquals( expected, Json.serialize( config, Json.deserialize( config, bytes ) ) );
+        File file = new File( dir, "test.json" );
+        Files.write( file.toPath(), bytes );
+        assertEquals( expected, Json.serialize( config, Json.deserialize( config, file ) ) );
+        assertEquals( "[]", Json.serialize( config, Json.deserialize( config, "[ ]".getBytes( StandardCharsets.UTF_8 ) ) ) );
+
+        // errors are reported as by the sequential parser
+        bytes[ bytes.length / 2 ] = ':';
+        JsonException expectedError = assertThrows( JsonException.class, ()-> Json.deserialize( new JsonConfigBuilder().build(), bytes ) );
+        JsonException error = assertThrows( JsonException.class, ()-> Json.deserialize( config, bytes ) );
+        assertEquals( expectedError.getMessage(), error.getMessage() );
+
+        // numbers are kept as primitives across chunks, a missing element is found within a chunk
+        StringBuilder numbers = new StringBuilder( "[" );
+        for ( int i = 0; i < 50000; i++ )
+            numbers.append( i > 0 ? "," : "" ).append( i * 3 );
+        byte[] numberBytes = numbers.append( "]" ).toString().getBytes( StandardCharsets.UTF_8 );
+        assertEquals( Json.serialize( config, Json.deserialize( numbers.toString() ) ), Json.serialize( config, Json.deserialize( config, numberBytes ) ) );
+        numberBytes[ numbers.indexOf( ",", numbers.length() / 2 ) + 1 ] = ',';
+        expectedError = assertThrows( JsonException.class, ()-> Json.deserialize( new JsonConfigBuilder().build(), numberBytes ) );
+        error = assertThrows( JsonException.class, ()-> Json.deserialize( config, numberBytes ) );
+        assertEquals( expectedError.getMessage(), error.getMessage() );
+
+        // the enclosing array counts towards the maximum depth
+        StringBuilder nested = new StringBuilder( "[" );
+        for ( int i = 0; i < 5000; i++ )
+            nested.append( i > 0 ? "," : "" ).append( "[[1]]" );
+        byte[] deep = nested.append( "]" ).toString().getBytes( StandardCharsets.UTF_8 );
+        JsonConfigBuilder limited = new JsonConfigBuilder().setNoLayout().setMaximumDepth( 4 );
+        assertEquals( Json.serialize( config, Json.deserialize( limited.build(), deep ) ),
+                Json.serialize( config, Json.deserialize( limited.setParallelParsing( 1024 ).build(), deep ) ) );
+        expectedError = assertThrows( JsonException.class, ()-> Json.deserialize( new JsonConfigBuilder().setMaximumDepth( 3 ).build(), deep ) );
+        error = assertThrows( JsonException.class, ()-> Json.deserialize( new JsonConfigBuilder().setMaximumDepth( 3 ).setParallelParsing( 1024 ).build(), deep ) );
+        assertEquals( expectedError.getMessage(), error.getMessage() );
+    }
+
+    @Test
+    public void testJsonLines() throws IOException {
+        JsonConfig config = new JsonConfigBuilder().setNoLayout().setAdaptiveInputBuffers( 32 ).build();
+        StringBuilder text = new StringBuilder();
+        for ( int i = 0; i < 100; i++ )
+            text.append( "{\"id\": " ).append( i ).append( ", \"name\": \"\u00e4" ).append( i ).append( "\"}\r\n" ).append( i % 10 == 0 ? "\n" : "" );
+        byte[] bytes = text.append( "[1, 2]" ).toString().getBytes( StandardCharsets.UTF_8 );
+
+        try ( JsonLineReader lines = Json.readLines( config, new ByteArrayInputStream( bytes ) ) ) {
+            assertEquals( "{\"id\":0,\"name\":\"\u00e40\"}", Json.serialize( config, lines.next() ) );
+            assertEquals( 100, lines.stream().count() );
+            assertFalse( lines.hasNext() );
+        }
+        try ( JsonLineReader lines = Json.readLines( config, new ByteArrayInputStream( bytes ), 3, true ) ) {
+            for ( int i = 0; i < 100; i++ )
+                assertEquals( i, lines.next().asObject().getInteger( "id" ) );
+            assertEquals( 2, lines.next().asArray().getLong( 1 ) );
+            assertFalse( lines.hasNext() );
+        }
+        try ( JsonLineReader lines = Json.readLines( config, new ByteArrayInputStream( bytes ), 3, false ) ) {
+            assertEquals( 101, lines.stream().count() );
+        }
+
+        JsonSyntaxException e = assertThrows( JsonSyntaxException.class, ()-> Json.readLines( config,
+                new ByteArrayInputStream( "1\n2\n\n[3 x\n".getBytes( StandardCharsets.UTF_8 ) ) ).stream().count() );
+        assertEquals( 4, e.getLocation().getLine() );
+        assertEquals( 4, e.getLocation().getColumn() );
+        assertEquals( JsonSyntaxException.class, e.getCause().getClass() );
+        assertEquals( 1, ( (JsonSyntaxException) e.getCause() ).getLocation().getLine() );
+        // errors without a location of their own, in a truncated line
+        e = assertThrows( JsonSyntaxException.class, ()-> Json.readLines( config,
+                new ByteArrayInputStream( "1\n{\"a\": \n".getBytes( StandardCharsets.UTF_8 ) ) ).stream().count() );
+        assertEquals( 2, e.getLocation().getLine() );
+        assertEquals( "Expected value", e.getCause().getMessage() );
+
+        // lines are returned as soon as a read of the input completes them
+        String[] reads = { "{\"a\": 1}\n[", "2]\n\"\u00e4", "\"\n" };
+        InputStream live = new InputStream() {
+            private int count;
+            @Override
+            public int read() {
+                throw new UnsupportedOperationException();
+            }
+            @Override
+            public int read( byte[] b, int off, int len ) {
+                if ( count == reads.length )
+                    throw new AssertionError( "Read beyond the input available" );
+                byte[] bytes = reads[count++].getBytes( StandardCharsets.UTF_8 );
+                System.arraycopy( bytes, 0, b, off, bytes.length );
+                return bytes.length;
+            }
+        };
+        JsonLineReader lines = Json.readLines( config, live );
+        assertEquals( 1, lines.next().asObject().getInteger( "a" ) );
+        assertEquals( 2, lines.next().asArray().getLong( 0 ) );
+        assertEquals( "\u00e4", lines.next().asString() );
+    }
+
+    @Test
+    public void testMultipleDocuments() {
+        JsonConfig config = new JsonConfigBuilder().setNoLayout().setInputBufferSize( 16 ).build();
+        String text = "{\"a\": [1, \"\u00e4\"]}{}\n 2 3\"x\"\r\n[true]  ";
+
+        JsonReader reader = Json.createMultiDocumentReader( config, new ByteArrayInputStream( text.getBytes( StandardCharsets.UTF_8 ) ) );
+        StringBuilder documents = new StringBuilder();
+        while ( reader.hasNext() )
+            documents.append( Json.serialize( config, Json.deserialize( reader ) ) ).append( '|' );
+        assertEquals( "{\"a\":[1,\"\u00e4\"]}|{}|2|3|\"x\"|[true]|", documents.toString() );
+
+        reader = new JsonFactory( config ).createMultiDocumentReader( new StringReader( "[1] 2" ) );
+        reader.skipValue();
+        assertEquals( JsonToken.END_DOCUMENT, reader.next() );
+        assertEquals( JsonToken.NUMBER, reader.next() );
+        assertEquals( 2, reader.getIntValue() );
+        assertEquals( JsonToken.END_DOCUMENT, reader.next() );
+        assertFalse( reader.hasNext() );
+
+        assertFalse( Json.createMultiDocumentReader( config, new StringReader( " \n " ) ).hasNext() );
+
+        // copying stops at the end of each text, so each one goes to a writer of its own
+        reader = Json.createMultiDocumentReader( config, new StringReader( text ) );
+        documents.setLength( 0 );
+        while ( reader.hasNext() ) {
+            StringWriter out = new StringWriter();
+            JsonWriter writer = Json.createWriter( config, out );
+            Json.copy( reader, writer );
+            writer.close();
+            documents.append( out ).append( '|' );
+        }
+        assertEquals( "{\"a\":[1,\"\u00e4\"]}|{}|2|3|\"x\"|[true]|", documents.toString() );
+    }
+
+    @Test
+    public void testFeedReader() {
+        JsonConfig config = new JsonConfigBuilder().setNoLayout().setInputBufferSize( 16 ).build();
+        String text = "{\"a\": [1, -2.5e3, \"\u00e4\ud83d\ude00\\\"\", true, null], \"skipped\": {\"b\": \"}\"}, \"c\": 30}";
+        byte[] bytes = text.getBytes( StandardCharsets.UTF_8 );
+
+        // fed byte by byte, every token is interrupted
+        JsonFeedReader reader = Json.createFeedReader( config );
+        StringBuilder tokens = new StringBuilder();
+        int fed = 0, needed = 0;
+        while ( reader.hasNext() ) {
+            JsonToken token = reader.next();
+            if ( token == JsonToken.NEED_INPUT ) {
+                needed++;
+                if ( fed < bytes.length )
+                    reader.feed( bytes, fed++, 1 );
+                else
+                    reader.end();
+                continue;
+            }
+            tokens.append( token ).append( ' ' );
+            if ( token == JsonToken.MEMBER_NAME && reader.getMemberName().equals( "skipped" ) )
+                reader.skipValue();
+            else if ( token == JsonToken.STRING )
+                tokens.append( reader.getStringValue() ).append( ' ' );
+            else if ( token == JsonToken.NUMBER )
+                tokens.append( reader.getNumberValue() ).append( ' ' );
+        }
+        assertEquals( "BEGIN_OBJECT MEMBER_NAME BEGIN_ARRAY NUMBER 1 NUMBER -2.5E+3 STRING \u00e4\ud83d\ude00\" BOOLEAN NULL END_ARRAY "
+                + "MEMBER_NAME MEMBER_NAME NUMBER 30 END_OBJECT ", tokens.toString() );
+        assertTrue( needed > bytes.length );
+
+        // several texts, fed at once
+        reader = new JsonFactory( config ).createFeedReader( true );
+        reader.feed( ByteBuffer.wrap( "[1] {".getBytes( StandardCharsets.UTF_8 ) ) );
+        assertEquals( JsonToken.BEGIN_ARRAY, reader.next() );
+        assertEquals( JsonToken.NUMBER, reader.next() );
+        assertEquals( JsonToken.END_ARRAY, reader.next() );
+        assertEquals( JsonToken.END_DOCUMENT, reader.next() );
+        assertEquals( JsonToken.BEGIN_OBJECT, reader.next() );
+        assertEquals( JsonToken.NEED_INPUT, reader.next() );
+        reader.feed( "}\n".getBytes( StandardCharsets.UTF_8 ) );
+        reader.end();
+        assertTrue( reader.hasNext() );
+        assertEquals( JsonToken.END_OBJECT, reader.next() );
+        assertEquals( JsonToken.END_DOCUMENT, reader.next() );
+        assertFalse( reader.hasNext() );
+
+        // errors are reported where the text is wrong, not where a chunk ends
+        JsonFeedReader broken = Json.createFeedReader( config );
+        broken.feed( "[1,\n  x".getBytes( StandardCharsets.UTF_8 ) );
+        assertEquals( JsonToken.BEGIN_ARRAY, broken.next() );
+        assertEquals( JsonToken.NUMBER, broken.next() );
+        JsonSyntaxException e = assertThrows( JsonSyntaxException.class, broken::next );
+        assertEquals( 2, e.getLocation().getLine() );
+        assertEquals( 3, e.getLocation().getColumn() );
+        assertThrows( IllegalStateException.class, ()-> { broken.end(); broken.feed( new byte[1] ); } );
+
+        // skips fed byte by byte continue where they stopped, within strings and after commas
+        byte[] nested = "[{\"a\": \"]\\\\\\\"}\"}, [[\"\u00e4\"]], 2, [3, {}], {\"b\": [}]".getBytes( StandardCharsets.UTF_8 );
+        JsonFeedReader skipping = Json.createFeedReader( config );
+        int[] at = { 0 };
+        assertEquals( JsonToken.BEGIN_ARRAY, next( skipping, nested, at ) );
+        skipping.skipValue();
+        skipping.skipValue();
+        assertEquals( JsonToken.NUMBER, next( skipping, nested, at ) );
+        assertEquals( 2, skipping.getIntValue() );
+        skipping.skipValue();
+        skipping.skipValue();
+        e = assertThrows( JsonSyntaxException.class, ()-> next( skipping, nested, at ) );
+        assertEquals( 47, e.getLocation().getColumn() );
+    }
+
+    /**
+     * Reads the next token, feeding one more byte whenever input is needed.
+     */
+    private static JsonToken next( JsonFeedReader reader, byte[] bytes, int[] fed ) {
+        JsonToken token;
+        while ( ( token = reader.next() ) == JsonToken.NEED_INPUT ) {
+            if ( fed[0] < bytes.length )
+                reader.feed( bytes, fed[0]++, 1 );
+            else
+                reader.end();
+        }
+        return token;
+    }
+
+    @Test
+    public void parseCharacters() {
+        char[] chars = "xx[\"abc\", \"a\\nb\", 12]xx".toCharArray();
+        JsonArray array = Json.deserialize( Json.createReader( chars, 2, chars.length - 4 ) ).asArray();
+        assertEquals( "abc", array.getString( 0 ) );
+        assertEquals( "a\nb", array.getString( 1 ) );
+        assertEquals( 12, array.getLong( 2 ) );
+        StringBuilder sb = new StringBuilder( "{ \"key\": \"value\" }" );
+        assertEquals( "value", Json.deserialize( Json.createReader( sb ) ).asObject().getString( "key" ) );
+        JsonSyntaxException e = assertThrows( JsonSyntaxException.class, ()-> Json.deserialize( Json.createReader( chars, 1, chars.length - 1 ) ) );
+        assertEquals( 0, e.getLocation().getPosition() );
+        assertEquals( 1, e.getLocation().getColumn() );
+    }
+
+    @Test
+    public void testPrimitiveAccessors() {
+        String[] numbers = { "0", "-0", "42", "-17", "123456789012345678", "9223372036854775807", "-9223372036854775808",
+                "0.5", "-2.25", "1e3", "1.5E-7", "0.000123", "123456789.123456789", "4.9e-324", "1.7976931348623157e308", "3e-400" };
+        for ( String number : numbers ) {
+            JsonReader reader = Json.createReader( "[" + number + "]" );
+            reader.next();
+            assertEquals( JsonToken.NUMBER, reader.next() );
+            assertEquals( Double.parseDouble( number ), reader.getDoubleValue(), number );
+            assertEquals( !number.contains( "." ) && !number.contains( "e" ) && !number.contains( "E" ), reader.isIntegral(), number );
+            assertEquals( new java.math.BigDecimal( number ).longValue(), reader.getLongValue(), number );
+            if ( Math.abs( Double.parseDouble( number ) ) < 1L << 31 )
+                assertEquals( new java.math.BigDecimal( number ).intValue(), reader.getIntValue(), number );
+            else
+                assertThrows( JsonException.class, reader::getIntValue, number );
+        }
+        // integers just beyond the range of an int are not wrapped around
+        for ( String number : new String[] { "2147483648", "-2147483649", "4294967297", "2147483647.5e1" } ) {
+            JsonReader reader = Json.createReader( number );
+            reader.next();
+            assertThrows( JsonException.class, reader::getIntValue, number );
+        }
+        JsonReader bounds = Json.createReader( "[2147483647, -2147483648, -2147483648.5]" );
+        bounds.next();
+        bounds.next();
+        assertEquals( Integer.MAX_VALUE, bounds.getIntValue() );
+        bounds.next();
+        assertEquals( Integer.MIN_VALUE, bounds.getIntValue() );
+        bounds.next();
+        assertEquals( Integer.MIN_VALUE, bounds.getIntValue() );
+        JsonReader reader = Json.createReader( "-12" );
+        reader.next();
+        assertFalse( reader.hasNext() );
+        assertEquals( -12, reader.getIntValue() );
+        assertEquals( "-12", reader.getStringValue() );
+        assertThrows( JsonException.class, ()-> Json.createReader( "\"text\"" ).getLongValue() );
+    }
+
+    @Test
+    public void testNumberClassification() {
+        JsonConfigBuilder builder = new JsonConfigBuilder();
+        JsonConfig exact = builder.build();
+        builder.setUseFloatingPoint();
+        JsonConfig floating = builder.build();
+        String[] numbers = { "9223372036854775807", "9223372036854775808", "-9223372036854775808", "-9223372036854775809",
+                "12345678901234567890", "-0", "1.5", "1e2" };
+        Class<?>[] exactTypes = { Long.class, java.math.BigDecimal.class, Long.class, java.math.BigDecimal.class,
+                java.math.BigDecimal.class, Long.class, java.math.BigDecimal.class, java.math.BigDecimal.class };
+        Class<?>[] floatingTypes = { Long.class, Double.class, Long.class, Double.class,
+                Double.class, Long.class, Double.class, Double.class };
+        for ( int i = 0; i < numbers.length; i++ ) {
+            JsonReader reader = Json.createReader( exact, numbers[i] );
+            reader.next();
+            assertEquals( exactTypes[i], reader.getNumberValue().getClass(), numbers[i] );
+            assertEquals( new java.math.BigDecimal( numbers[i] ), new java.math.BigDecimal( reader.getNumberValue().toString() ) );
+            reader = Json.createReader( floating, numbers[i] );
+            reader.next();
+            assertEquals( floatingTypes[i], reader.getNumberValue().getClass(), numbers[i] );
+        }
+    }
+
+    @Test
+    public void testSkip() {
+        String json = "{ \"payload\": { \"a\": [ 1, \"}]\\\"\", { \"\u00e4\ud83d\ude00\": null } ] },\n \"type\": \"event\", \"rest\": [ [ ], 2 ], \"id\": 7 }";
+        JsonReader[] readers = {
+                Json.createReader( json ),
+                Json.createReader( new ByteArrayInputStream( json.getBytes( StandardCharsets.UTF_8 ) ) ) };
+        for ( JsonReader reader : readers ) {
+            assertEquals( JsonToken.BEGIN_OBJECT, reader.next() );
+            assertEquals( JsonToken.MEMBER_NAME, reader.next() );
+            reader.skipValue();
+            assertEquals( JsonToken.MEMBER_NAME, reader.next() );
+            assertEquals( "type", reader.getMemberName() );
+            assertEquals( JsonToken.STRING, reader.next() );
+            assertEquals( "event", reader.getStringValue() );
+            assertEquals( JsonToken.MEMBER_NAME, reader.next() );
+            assertEquals( JsonToken.BEGIN_ARRAY, reader.next() );
+            assertEquals( JsonToken.BEGIN_ARRAY, reader.next() );
+            reader.skipChildren();
+            reader.skipChildren();
+            assertEquals( JsonToken.MEMBER_NAME, reader.next() );
+            reader.skipChildren();
+            assertFalse( reader.hasNext() );
+        }
+        JsonReader reader = Json.createReader( new ByteArrayInputStream( "[ \"\u00e4\ud83d\ude00\", [ { } ], 1 }".getBytes( StandardCharsets.UTF_8 ) ) );
+        reader.next();
+        reader.skipValue();
+        reader.skipValue();
+        JsonSyntaxException e = assertThrows( JsonSyntaxException.class, reader::skipChildren );
+        assertEquals( 21, e.getLocation().getColumn() );
+
+        // brackets within skipped content must match
+        String mismatched = "[ \"\u00e4\ud83d\ude00\", [ { ] }, 1 ]";
+        readers = new JsonReader[] {
+                Json.createReader( mismatched ),
+                Json.createReader( new ByteArrayInputStream( mismatched.getBytes( StandardCharsets.UTF_8 ) ) ) };
+        for ( JsonReader r : readers ) {
+            r.next();
+            r.skipValue();
+            e = assertThrows( JsonSyntaxException.class, r::skipValue );
+            assertEquals( 14, e.getLocation().getColumn() );
+        }
+        assertThrows( JsonSyntaxException.class, ()-> Json.createReader( "[ [ 1 } ]" ).skipValue() );
+    }
+
+    @Test
+    public void testSymbolTable() {
+        JsonConfig config = new JsonConfigBuilder().setSymbolTable( 100 ).build();
+        JsonFactory factory = new JsonFactory( config );
+        String json = "[ { \"name\": 1, \"n\\u0061me\": 2, \"caf\u00e9\": 3 }, { \"name\": 4, \"caf\u00e9\": 5 } ]";
+        JsonArray first = Json.deserialize( factory.createReader( json ) ).asArray();
+        JsonArray second = Json.deserialize( factory.createReader( new ByteArrayInputStream( json.getBytes( StandardCharsets.UTF_8 ) ) ) ).asArray();
+        String name = first.getObject( 0 ).keySet().iterator().next();
+        assertEquals( "name", name );
+        for ( JsonArray array : new JsonArray[] { first, second } ) {
+            for ( int i = 0; i < 2; i++ ) {
+                for ( String key : array.getObject( i ).keySet() ) {
+                    if ( key.equals( "name" ) )
+                        assertSame( name, key );
+                }
+            }
+        }
+        assertEquals( 128, config.getSymbolTableSize() );
+        assertEquals( 0, new JsonConfigBuilder().build().getSymbolTableSize() );
+    }
+
 }
@@ -3,6 +3,10 @@ package net.tx0.json;
 import net.tx0.jason.*;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class JsonValueTest {
@@ -24,6 +28,202 @@ public class JsonValueTest {
 
     }
 
+    @Test
+    public void testLazyParsing() {
+
+        JsonConfig config = new JsonConfigBuilder().setLazyParsing().build();
+        String text = "{ \"a\": [ { \"b\": \"c\" }, { \"b\": [ 1, 2.5, null ] } ], \"d\": { \"e\": true }, \"f\": [ 1 x ] }";
+
+        JsonValue value = Json.deserialize( config, text );
+
+        assertEquals( "c", value.find("a[0].b").asString() );
+        assertEquals( 2.5, value.find("a[1].b[1]").asDouble() );
+        assertEquals( "{\"e\":true}", Json.serialize( new JsonConfigBuilder().setNoLayout().build(), value.find("d") ) );
+
+        // errors within nested arrays and objects are only found when accessed
+        assertThrows( JsonSyntaxException.class, ()-> { value.asObject().getArray("f").size(); } );
+        assertThrows( JsonException.class, ()-> { Json.deserialize( config, "{ \"a\": [ } " ); } );
+
+        // the maximum depth is enforced as when parsing eagerly, ten levels are one too many
+        StringBuilder deep = new StringBuilder( "{\"a\":" );
+        for ( int i = 0; i < 8; i++ )
+            deep.insert( 5, '[' ).append( ']' );
+        JsonConfig limited = new JsonConfigBuilder().setMaximumDepth( 10 ).setLazyParsing().build();
+        assertEquals( 0, Json.deserialize( limited, deep + "}" ).find( "a[0][0][0][0][0][0][0]" ).asArray().size() );
+        deep.insert( 5, '[' ).append( ']' );
+        JsonException expected = assertThrows( JsonException.class, ()-> { Json.deserialize( new JsonConfigBuilder().setMaximumDepth( 10 ).build(), deep + "}" ); } );
+        JsonException error = assertThrows( JsonException.class, ()-> { Json.deserialize( limited, deep + "}" ); } );
+        assertEquals( expected.getMessage(), error.getMessage() );
+
+    }
+
+    @Test
+    public void testCompactDocuments() {
+
+        JsonConfig config = new JsonConfigBuilder().setCompactDocuments().setNoLayout().build();
+        String text = "{\"a\":[{\"b\":\"c\"},{\"b\":[1,2.5,null,123456789012345678901]}],\"d\":1,\"d\":2,\"e\":-72057594037927936}";
+
+        JsonValue value = Json.deserialize( config, text );
+
+        assertEquals( "c", value.find("a[0].b").asString() );
+        assertEquals( 2.5, value.find("a[1].b[1]").asDouble() );
+        assertNull( value.find("a[1].b[2]") );
+        assertEquals( 4, value.find("a[1].b").asArray().size() );
+        assertEquals( -72057594037927936L, value.asObject().getLong("e") );
+
+        // repeated names count once, with the last value
+        assertEquals( 3, value.asObject().size() );
+        assertEquals( 2, value.asObject().getInteger("d") );
+        assertEquals( "{\"a\":[{\"b\":\"c\"},{\"b\":[1,2.5,null,123456789012345678901]}],\"d\":2,\"e\":-72057594037927936}",
+                Json.serialize( config, value ) );
+
+        assertThrows( UnsupportedOperationException.class, ()-> { value.asObject().put( "f", true ); } );
+
+        // larger objects are looked up through a table, repeated names still take the last value
+        StringBuilder large = new StringBuilder( "{" );
+        for ( int i = 0; i < 30; i++ )
+            large.append( "\"m" ).append( i % 20 ).append( "\":" ).append( i ).append( "," );
+        JsonObject members = Json.deserialize( config, large.append( "\"x\":[{\"y\":1}]}" ).toString() ).asObject();
+        assertEquals( 21, members.size() );
+        assertEquals( 25, members.getInteger( "m5" ) );
+        assertEquals( 15, members.getInteger( "m15" ) );
+        assertEquals( 1, members.find( "x[0].y" ).asInteger() );
+        assertNull( members.get( "m20" ) );
+        assertFalse( members.containsKey( null ) );
+        assertEquals( "m0", members.keySet().iterator().next() );
+
+    }
+
+    @Test
+    public void testObjectMembers() {
+
+        JsonObject object = new JsonObject();
+        for ( int i = 0; i < 20; i++ )
+            object.put( "m" + i, i );
+
+        object.put( "m3", "three" );
+        object.remove( "m0" );
+        object.rename( "m1", "m1" + "x" );
+
+        assertEquals( 19, object.size() );
+        assertEquals( "three", object.getString("m3") );
+        assertEquals( 19, object.getInteger("m19") );
+        assertNull( object.get("m0") );
+        assertEquals( "m2", object.keySet().iterator().next() );
+        assertEquals( "m1x", new ArrayList<>( object.keySet() ).get( 18 ) );
+
+        // members keep the order of the text
+        JsonValue parsed = Json.deserialize( "{ \"b\": 1, \"a\": 2, \"b\": 3 }" );
+        assertEquals( "{\"b\":3,\"a\":2}", Json.serialize( new JsonConfigBuilder().setNoLayout().build(), parsed ) );
+
+        // parsed maps are sized to their members, repeated names still count once
+        StringBuilder text = new StringBuilder( "{" );
+        for ( int i = 0; i < 12; i++ )
+            text.append( "\"m" ).append( i % 10 ).append( "\": { \"n\": " ).append( i ).append( " }, " );
+        JsonObject large = Json.deserialize( text.append( "\"x\": 0 }" ).toString() ).asObject();
+        assertEquals( 11, large.size() );
+        assertEquals( 11, large.getObject( "m1" ).getInteger( "n" ) );
+        assertEquals( 9, large.getObject( "m9" ).getInteger( "n" ) );
+
+        // null names are allowed as in a HashMap
+        object.put( null, 1 );
+        assertTrue( object.containsKey( null ) );
+        assertEquals( 1, object.getInteger( null ) );
+        assertEquals( 1, object.remove( null ).asInteger() );
+        assertFalse( object.containsKey( null ) );
 
+    }
+
+    @Test
+    public void testShapeTable() {
+
+        JsonConfig config = new JsonConfigBuilder().setNoLayout().setSymbolTable( 64 ).setShapeTable( 16 ).build();
+        StringBuilder text = new StringBuilder( "[" );
+        for ( int i = 0; i < 3; i++ )
+            text.append( i > 0 ? "," : "" ).append( "{\"id\":" ).append( i ).append( ",\"a\":1,\"b\":2,\"c\":3,\"d\":4,\"e\":5,\"f\":6,\"g\":7,\"h\":8}" );
+        JsonArray records = Json.deserialize( config, text.append( "]" ).toString() ).asArray();
+
+        JsonObject first = records.get( 0 ).asObject(), second = records.get( 1 ).asObject();
+        second.put( "h", "eight" );
+        second.remove( "a" );
+        first.put( "z", 26 );
+        second.put( "id", 10 );
+
+        assertEquals( "{\"id\":0,\"a\":1,\"b\":2,\"c\":3,\"d\":4,\"e\":5,\"f\":6,\"g\":7,\"h\":8,\"z\":26}", Json.serialize( config, first ) );
+        assertEquals( "{\"id\":10,\"b\":2,\"c\":3,\"d\":4,\"e\":5,\"f\":6,\"g\":7,\"h\":\"eight\"}", Json.serialize( config, second ) );
+        assertEquals( "{\"id\":2,\"a\":1,\"b\":2,\"c\":3,\"d\":4,\"e\":5,\"f\":6,\"g\":7,\"h\":8}", Json.serialize( config, records.get( 2 ) ) );
+        assertEquals( 8, records.get( 2 ).asObject().getInteger( "h" ) );
+        assertEquals( 16, config.getShapeTableSize() );
+
+    }
+
+    @Test
+    public void testPrimitiveArrays() {
+
+        JsonConfigBuilder builder = new JsonConfigBuilder().setNoLayout();
+        builder.setUseFloatingPoint();
+        JsonConfig config = builder.build();
+        JsonObject parsed = Json.deserialize( config, "{ \"l\": [1, -2, 3], \"d\": [0.5, 1e300], \"b\": [true, false, true], \"m\": [1, 2.5] }" ).asObject();
+
+        JsonArray longs = parsed.getArray( "l" ), doubles = parsed.getArray( "d" ), booleans = parsed.getArray( "b" );
+        assertEquals( -2, longs.getLong( 1 ) );
+        assertEquals( 1e300, doubles.getDouble( 1 ) );
+        assertTrue( booleans.getBoolean( 2 ) );
+        // elements are created on access, they are found by their values
+        assertEquals( 1, longs.indexOf( JsonValue.create( -2L ) ) );
+        assertTrue( longs.contains( longs.get( 0 ) ) );
+        assertFalse( doubles.contains( JsonValue.create( 1L ) ) );
+        assertTrue( longs.equals( parsed.getArray( "l" ) ) );
+        assertEquals( parsed.getArray( "b" ).hashCode(), booleans.hashCode() );
+        assertThrows( JsonException.class, () -> booleans.getLong( 0 ) );
+        assertThrows( IndexOutOfBoundsException.class, () -> longs.getLong( 3 ) );
+
+        longs.add( 0, JsonValue.create( 7L ) );
+        longs.remove( 2 );
+        booleans.remove( 0 );
+        booleans.add( false );
+        doubles.add( "x" );
+        doubles.set( 0, JsonValue.create( 1.5 ) );
+
+        assertEquals( "{\"l\":[7,1,3],\"d\":[1.5,1.0E300,\"x\"],\"b\":[false,true,false],\"m\":[1,2.5]}", Json.serialize( config, parsed ) );
+        assertEquals( JsonValue.create( 7L, 1L, 3L ), longs );
+        assertEquals( 2.5, parsed.getArray( "m" ).getDouble( 1 ) );
+
+        // numbers beyond a long are doubles with floating point, decimals without
+        String big = "[-9223372036854775808, 9223372036854775808, 0.5]";
+        assertEquals( "[-9223372036854775808,9.223372036854776E18,0.5]", Json.serialize( config, Json.deserialize( config, big ) ) );
+        JsonConfig decimals = new JsonConfigBuilder().setNoLayout().build();
+        JsonArray exact = Json.deserialize( decimals, big ).asArray();
+        assertEquals( Long.MIN_VALUE, exact.getLong( 0 ) );
+        assertEquals( new BigDecimal( "9223372036854775808" ), exact.get( 1 ).asNumber() );
+        assertEquals( "[-9223372036854775808,9223372036854775808,0.5]", Json.serialize( decimals, exact ) );
+
+    }
+
+    @Test
+    public void testProjection() {
+
+        JsonConfig config = new JsonConfigBuilder().setNoLayout().build();
+        String text = "{ \"a\": [ { \"b\": \"c\" }, { \"b\": [ 1, 2.5, null ] }, 3 ], \"d\": { \"e\": true }, \"d\": { \"f\": 1 } }";
+        JsonProjection projection = new JsonProjection( "a[1].b[1]", "d", "d.e", "d.f", "a[0]", "a[5]", "x.y", "" );
+
+        List<JsonValue> values = projection.project( Json.createReader( config, text ) );
+        assertEquals( 2.5, values.get( 0 ).asDouble() );
+        assertEquals( "{\"f\":1}", Json.serialize( config, values.get( 1 ) ) );
+        // the repeated member replaces the first one
+        assertNull( values.get( 2 ) );
+        assertEquals( 1, values.get( 3 ).asInteger() );
+        assertEquals( "c", values.get( 4 ).asObject().getString( "b" ) );
+        assertNull( values.get( 5 ) );
+        assertNull( values.get( 6 ) );
+        assertEquals( Json.serialize( config, Json.deserialize( text ) ), Json.serialize( config, values.get( 7 ) ) );
+
+        JsonValue sample = Json.deserialize( Sample.SAMPLE_RESOURCE );
+        assertEquals( "5001", new JsonProjection( "[1].topping[0].id" ).project( sample ).get( 0 ).asString() );
+
+        assertThrows( IllegalArgumentException.class, ()-> { new JsonProjection( "[1]name" ); } );
+        assertThrows( IllegalArgumentException.class, ()-> { new JsonProjection( "a[-1]" ); } );
+
+    }
 
 }
@@ -4,6 +4,10 @@ import net.tx0.jason.*;
 import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -25,6 +29,27 @@ public class JsonWriterTest {
 
     }
 
+    @Test
+    public void testInlineArrays() {
+        JsonConfig config = new JsonConfigBuilder().setLayout().setInlineArrays(20).setOutputBufferSize(16).build();
+
+        String res = Json.serialize(config, Json.deserialize("{ \"blue\": [ 0, 0, 200 ], \"none\": [], \"long\": [ \"alpha\", \"beta\", \"gamma\" ], \"deep\": [ [ 1 ] ] }"));
+        assertEquals(
+                "{\n" +
+                        "    \"blue\": [0, 0, 200],\n" +
+                        "    \"none\": [],\n" +
+                        "    \"long\": [\n" +
+                        "        \"alpha\",\n" +
+                        "        \"beta\",\n" +
+                        "        \"gamma\"\n" +
+                        "    ],\n" +
+                        "    \"deep\": [\n" +
+                        "        [1]\n" +
+                        "    ]\n" +
+                        "}", res);
+
+    }
+
     @Test
     public void testNoPrettyPrinting() {
         JsonConfig config = new JsonConfigBuilder().setNoLayout().build();
@@ -45,6 +70,24 @@ public class JsonWriterTest {
         assertThrows( JsonException.class, () -> { writer.write(2); } );
     }
 
+    @Test
+    public void testUnclosedWriter() {
+        JsonConfig config = new JsonConfigBuilder().setNoLayout().build();
+
+        // a complete text reaches the writer without the json writer being closed
+        StringWriter out = new StringWriter();
+        JsonWriter writer = Json.createWriter(config, out);
+        writer.writeStartObject();
+        writer.writeMember("a");
+        writer.write(1);
+        writer.writeEndObject();
+        assertEquals( "{\"a\":1}", out.toString() );
+
+        StringWriter scalar = new StringWriter();
+        Json.createWriter(config, scalar).write("x");
+        assertEquals( "\"x\"", scalar.toString() );
+    }
+
     @Test
     public void testMissingMemberName() {
         JsonConfig config = new JsonConfigBuilder().setLayout().build();
@@ -72,5 +115,92 @@ public class JsonWriterTest {
 
     }
 
+    @Test
+    public void testDeepNesting() {
+        // the maximum depth only limits readers, writers nest as deep as they are asked to
+        JsonConfig config = new JsonConfigBuilder().setNoLayout().setMaximumDepth(4).build();
+
+        StringWriter out = new StringWriter();
+        JsonWriter writer = Json.createWriter(config, out);
+
+        writer.writeBeginArray();
+        writer.writeStartObject();
+        writer.writeMember("a");
+        for ( int i = 0; i < 100; i++ )
+            writer.writeBeginArray();
+        assertThrows( JsonException.class, () -> { writer.writeEndObject(); } );
+        for ( int i = 0; i < 100; i++ )
+            writer.writeEndArray();
+        writer.writeEndObject();
+        writer.writeEndArray();
+        writer.close();
+
+        StringBuilder expected = new StringBuilder("[{\"a\":");
+        for ( int i = 0; i < 100; i++ )
+            expected.insert(6, '[').append(']');
+        assertEquals(expected.append("}]").toString(), out.toString());
+    }
+
+    @Test
+    public void testUtf8Stream() {
+        JsonConfig config = new JsonConfigBuilder().setOutputBufferSize(16).build();
+        StringBuilder sb = new StringBuilder();
+        for ( int i = 0; i < 40; i++ )
+            sb.append("a\u00e4\u20ac\ud83d\ude00");
+        JsonArray array = new JsonArray();
+        for ( int i = 0; i < 40; i++ )
+            array.add(sb.substring(0, i));
+        array.add("lone \ud83d surrogate \ude00");
+
+        ByteArrayOutputStream direct = new ByteArrayOutputStream();
+        Json.serialize(array, config, direct);
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        Json.serialize(array, config, new OutputStreamWriter(encoded, StandardCharsets.UTF_8));
+
+        assertArrayEquals(encoded.toByteArray(), direct.toByteArray());
+    }
+
+    @Test
+    public void testEscaping() {
+        JsonConfig config = new JsonConfigBuilder().setNoLayout().setOutputBufferSize(16).build();
+        JsonObject object = new JsonObject();
+        object.put("a\"b", "quote \" backslash \\ slash / newline \n tab \t control \u0001\u001f del \u007f \u00e4");
+        assertEquals("{\"a\\\"b\":\"quote \\\" backslash \\\\ slash / newline \\n tab \\t control \\u0001\\u001F del \u007f \u00e4\"}",
+                Json.serialize(config, object));
+    }
+
+    @Test
+    public void testNumbers() {
+        StringWriter out = new StringWriter();
+        JsonWriter writer = Json.createWriter(new JsonConfigBuilder().setNoLayout().setOutputBufferSize(16).build(), out);
+        writer.writeBeginArray();
+        writer.write(0L);
+        writer.write(-42);
+        writer.write(Long.MIN_VALUE);
+        writer.write(1.0);
+        writer.write(-0.0);
+        writer.write(0.1);
+        writer.write(1234567.0);
+        writer.write(1.0E7);
+        writer.write(0.001);
+        writer.write(1.0E-4);
+        writer.write(1.0E23);
+        writer.write(Double.MIN_VALUE);
+        writer.write((Number) 2.5);
+        writer.write(Double.NaN);
+        writer.writeEndArray();
+        writer.close();
+        assertEquals("[0,-42,-9223372036854775808,1.0,-0.0,0.1,1234567.0,1.0E7,0.001,1.0E-4,1.0E23,4.9E-324,2.5,NaN]", out.toString());
+
+        Random random = new Random(1);
+        for ( int i = 0; i < 10000; i++ ) {
+            double d = Double.longBitsToDouble(random.nextLong());
+            if ( Double.isNaN(d) )
+                continue;
+            String text = Json.serialize(JsonNumber.createNumber(d));
+            assertEquals(d, Double.parseDouble(text), text);
+            assertTrue(text.length() <= Double.toString(d).length(), text);
+        }
+    }
 
 }
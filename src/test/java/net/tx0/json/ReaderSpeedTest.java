@@ -0,0 +1,61 @@
+package net.tx0.json;
+
+import net.tx0.jason.Json;
+import net.tx0.jason.JsonReader;
+
+/**
+ * Measures the token throughput of the reader on a flat and on a deeply nested document held in memory.
+ */
+public class ReaderSpeedTest {
+
+    public static void main( String[] args ) {
+
+        String flat = flat( 8 << 20 );
+        String nested = nested( 8 << 20 );
+
+        for ( int i = 0; i < 5; i++ ) {
+            measure( "flat", flat );
+            measure( "nested", nested );
+        }
+
+    }
+
+    private static String flat( int size ) {
+        StringBuilder sb = new StringBuilder( size + 64 );
+        sb.append( '[' );
+        for ( int i = 0; sb.length() < size; i++ ) {
+            if ( i > 0 )
+                sb.append( ',' );
+            sb.append( i ).append( ",true,null" );
+        }
+        return sb.append( ']' ).toString();
+    }
+
+    private static String nested( int size ) {
+        StringBuilder sb = new StringBuilder( size + 1024 );
+        sb.append( '[' );
+        for ( int i = 0; sb.length() < size; i++ ) {
+            if ( i > 0 )
+                sb.append( ',' );
+            for ( int j = 0; j < 100; j++ )
+                sb.append( "{\"a\":[" );
+            sb.append( i );
+            for ( int j = 0; j < 100; j++ )
+                sb.append( "]}" );
+        }
+        return sb.append( ']' ).toString();
+    }
+
+    private static void measure( String name, String document ) {
+        long tokens = 0;
+        long t0 = System.nanoTime();
+        JsonReader reader = Json.createReader( document );
+        while ( reader.hasNext() ) {
+            reader.next();
+            tokens++;
+        }
+        long nanos = System.nanoTime() - t0;
+        System.out.printf( "%-8s %d tokens in %.3fs (%.1fM tokens/s)\n", name, tokens, nanos / 1e9, tokens / 1e6 / ( nanos / 1e9 ) );
+    }
+
+}
@@ -0,0 +1,80 @@
+package net.tx0.json;
+
+import net.tx0.jason.Json;
+import net.tx0.jason.JsonReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Compares the throughput of the UTF-8 scanner reading bytes with the character scanner reading
+ * through a decoder, using a generated document.
+ */
+public class ScannerSpeedTest {
+
+    private static final String[] WORDS = { "alpha", "beta", "gamma", "\u00e4rger", "caf\u00e9", "\u20ac", "\u65e5\u672c", "\ud83d\ude00" };
+
+    public static void main( String[] args ) {
+
+        byte[] document = generate( 32 << 20 ).getBytes( StandardCharsets.UTF_8 );
+
+        for ( int i = 0; i < 5; i++ ) {
+            report( "utf-8 bytes", document, measureBytes( document ) );
+            report( "decoded chars", document, measureChars( document ) );
+        }
+
+    }
+
+    private static String generate( int size ) {
+        Random random = new Random( 0 );
+        StringBuilder sb = new StringBuilder( size + 256 );
+        sb.append( "[\n" );
+        for ( int i = 0; sb.length() < size; i++ ) {
+            if ( i > 0 )
+                sb.append( ",\n" );
+            sb.append( "  { \"id\": " ).append( random.nextInt( Integer.MAX_VALUE ) );
+            sb.append( ", \"score\": " ).append( random.nextDouble() * 1000 );
+            sb.append( ", \"active\": " ).append( random.nextBoolean() );
+            sb.append( ", \"name\": \"" );
+            for ( int j = random.nextInt( 8 ); j >= 0; j-- )
+                sb.append( WORDS[random.nextInt( WORDS.length )] ).append( ' ' );
+            sb.append( "\", \"tags\": [ \"a\", \"b\\n\", null ] }" );
+        }
+        sb.append( "\n]" );
+        return sb.toString();
+    }
+
+    private static long measureBytes( byte[] document ) {
+        long t0 = System.nanoTime();
+        consume( Json.createReader( new ByteArrayInputStream( document ) ) );
+        return System.nanoTime() - t0;
+    }
+
+    private static long measureChars( byte[] document ) {
+        long t0 = System.nanoTime();
+        Reader reader = new InputStreamReader( new ByteArrayInputStream( document ), StandardCharsets.UTF_8 );
+        consume( Json.createReader( reader ) );
+        return System.nanoTime() - t0;
+    }
+
+    private static void consume( JsonReader reader ) {
+        while ( reader.hasNext() ) {
+            switch ( reader.next() ) {
+                case STRING:
+                    reader.getStringValue();
+                    break;
+                case MEMBER_NAME:
+                    reader.getMemberName();
+                    break;
+            }
+        }
+    }
+
+    private static void report( String name, byte[] document, long nanos ) {
+        System.out.printf( "%-14s %dMB read in %.3fs (%.1fMB/s)\n", name, document.length >> 20, nanos / 1e9, ( document.length / 1048576.0 ) / ( nanos / 1e9 ) );
+    }
+
+}